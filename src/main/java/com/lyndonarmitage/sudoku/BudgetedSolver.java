@@ -0,0 +1,17 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * A {@link SudokuSolver} that can be told to stop after a certain amount of work and report how far it got.
+ */
+public interface BudgetedSolver extends SudokuSolver {
+
+    /**
+     * Attempt to solve the Sudoku in place without going over the given budget.
+     *
+     * @param sudoku The Sudoku to solve
+     * @param budget The limits on the solve
+     * @return The status of the solve along with the Sudoku and candidates reached
+     * @throws SudokuException
+     */
+    SolveResult solve(Sudoku sudoku, SolveBudget budget) throws SudokuException;
+}
@@ -0,0 +1,239 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * Live candidates bound to a Sudoku, kept up to date one move at a time.<br />
+ * Placing a value only touches the 20 peers of the cell and clearing a value only recomputes the cell and its peers,
+ * rather than working out all 81 cells again. The state also tracks how many values are filled in and how many
+ * conflicts (values repeated within a row, column or box) there are, so checking a move is just as cheap.<br />
+ * Changes must be made through this class to keep it in step with the Sudoku; if the Sudoku is changed directly call
+ * {@link CandidateState#resync()}.
+ */
+public class CandidateState {
+
+    private final Sudoku sudoku;
+    private final Candidates candidates;
+    // how many times each value appears in each unit, indexed by unit * GRID_SIZE + value - 1
+    private final int[] counts = new int[Units.UNIT_COUNT * Sudoku.GRID_SIZE];
+    private final int[] used = new int[Units.UNIT_COUNT];
+    private int filled;
+    private int conflicts;
+
+    /**
+     * Bind a new candidate state to a Sudoku, working out its candidates from scratch
+     *
+     * @param sudoku The Sudoku to track
+     */
+    public CandidateState(Sudoku sudoku) {
+        this.sudoku = sudoku;
+        this.candidates = new Candidates();
+        resync();
+    }
+
+    /**
+     * Rebuilds the whole state from the Sudoku. Only needed if the Sudoku was changed without going through this class.
+     */
+    public void resync() {
+        int[][] grid = sudoku.getGrid();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        for (int i = 0; i < used.length; i++) {
+            used[i] = 0;
+        }
+        filled = 0;
+        conflicts = 0;
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int value = grid[Masks.x(i)][Masks.y(i)];
+            if (value != 0) {
+                count(i, value);
+            }
+        }
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            recompute(i, grid);
+        }
+    }
+
+    /**
+     * @return The Sudoku this state is bound to
+     */
+    public Sudoku getSudoku() {
+        return sudoku;
+    }
+
+    /**
+     * @return The live candidates of the Sudoku
+     */
+    public Candidates getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Set a value in the Sudoku, updating the candidates of the affected cells.
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value the value to set it to (0 clears the cell)
+     * @throws SudokuException
+     */
+    public void set(int x, int y, int value) throws SudokuException {
+        if (value == 0) {
+            clear(x, y);
+        } else {
+            place(x, y, value);
+        }
+    }
+
+    /**
+     * Place a value in the Sudoku and remove it from the candidates of its peers.
+     * Any value already in the cell is cleared first.
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value the value to place (between 1 and 9)
+     * @throws SudokuException
+     */
+    public void place(int x, int y, int value) throws SudokuException {
+        if (value < 1 || value > Sudoku.GRID_SIZE) {
+            throw new SudokuException(sudoku, "Value " + value + " is not in range");
+        }
+        if (sudoku.getAbsolute(x, y) == value) {
+            return;
+        }
+        if (sudoku.getAbsolute(x, y) != 0) {
+            clear(x, y);
+        }
+        sudoku.setAbsolute(x, y, value);
+        int cell = Masks.index(x, y);
+        count(cell, value);
+        int bit = Masks.bit(value);
+        int[] masks = candidates.getMasks();
+        masks[cell] = bit;
+        int[][] grid = sudoku.getGrid();
+        for (int peer : Units.PEERS[cell]) {
+            if (grid[Units.COLUMN_OF[peer]][Units.ROW_OF[peer]] == 0) {
+                masks[peer] &= ~bit;
+            }
+        }
+    }
+
+    /**
+     * Clear a cell in the Sudoku and recompute the candidates of it and its peers.<br />
+     * <b>Note:</b> Any candidates of the peers that had been eliminated by other means (such as hints) are restored.
+     *
+     * @param x absolute x
+     * @param y absolute y
+     * @throws SudokuException
+     */
+    public void clear(int x, int y) throws SudokuException {
+        int value = sudoku.getAbsolute(x, y);
+        if (value == 0) {
+            return;
+        }
+        sudoku.setAbsolute(x, y, 0);
+        int cell = Masks.index(x, y);
+        uncount(cell, value);
+        int[][] grid = sudoku.getGrid();
+        recompute(cell, grid);
+        for (int peer : Units.PEERS[cell]) {
+            recompute(peer, grid);
+        }
+    }
+
+    /**
+     * Remove a single candidate from an empty cell without placing anything.
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value value between 1-9
+     * @return true if the value was a candidate before being removed
+     */
+    public boolean eliminate(int x, int y, int value) {
+        if (sudoku.getGrid()[x][y] != 0) {
+            return false;
+        }
+        return candidates.remove(x, y, value);
+    }
+
+    /**
+     * Check whether a value could be placed in a cell without conflicting with its row, column or box.
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value value between 1-9
+     * @return true if the value is not already present in any unit of the cell
+     */
+    public boolean canPut(int x, int y, int value) {
+        int cell = Masks.index(x, y);
+        int[] units = Units.OF_CELL[cell];
+        return ((used[units[0]] | used[units[1]] | used[units[2]]) & Masks.bit(value)) == 0;
+    }
+
+    /**
+     * @return The number of filled in cells
+     */
+    public int getFilled() {
+        return filled;
+    }
+
+    /**
+     * @return The number of extra copies of values within the units, 0 if there are no conflicts
+     */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * @return true if no value is repeated within a row, column or box and no empty cell has run out of candidates
+     */
+    public boolean isConsistent() {
+        if (conflicts > 0) {
+            return false;
+        }
+        int[] masks = candidates.getMasks();
+        for (int mask : masks) {
+            if (mask == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every cell is filled in and there are no conflicts
+     */
+    public boolean isSolved() {
+        return filled == Masks.CELL_COUNT && conflicts == 0;
+    }
+
+    private void count(int cell, int value) {
+        filled++;
+        for (int unit : Units.OF_CELL[cell]) {
+            if (++counts[unit * Sudoku.GRID_SIZE + value - 1] > 1) {
+                conflicts++;
+            }
+            used[unit] |= Masks.bit(value);
+        }
+    }
+
+    private void uncount(int cell, int value) {
+        filled--;
+        for (int unit : Units.OF_CELL[cell]) {
+            int remaining = --counts[unit * Sudoku.GRID_SIZE + value - 1];
+            if (remaining > 0) {
+                conflicts--;
+            } else {
+                used[unit] &= ~Masks.bit(value);
+            }
+        }
+    }
+
+    private void recompute(int cell, int[][] grid) {
+        int value = grid[Units.COLUMN_OF[cell]][Units.ROW_OF[cell]];
+        if (value != 0) {
+            candidates.getMasks()[cell] = Masks.bit(value);
+        } else {
+            int[] units = Units.OF_CELL[cell];
+            candidates.getMasks()[cell] = Masks.ALL & ~(used[units[0]] | used[units[1]] | used[units[2]]);
+        }
+    }
+}
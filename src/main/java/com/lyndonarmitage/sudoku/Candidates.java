@@ -0,0 +1,174 @@
+package com.lyndonarmitage.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * The candidate values ("pencil marks") of every cell in a Sudoku, stored as one {@link Masks bit mask} per cell.<br />
+ * Filled in cells have a single candidate, their value.
+ */
+public class Candidates {
+
+    private final int[] masks;
+
+    /**
+     * Initialize Candidates where every cell could be any value
+     */
+    public Candidates() {
+        this.masks = new int[Masks.CELL_COUNT];
+        Arrays.fill(masks, Masks.ALL);
+    }
+
+    /**
+     * Initialize Candidates from an existing mask array.
+     * This array will be copied
+     *
+     * @param masks an array of {@link Masks#CELL_COUNT} masks indexed by {@link Masks#index(int, int)}
+     */
+    public Candidates(int[] masks) {
+        if (masks.length != Masks.CELL_COUNT) {
+            throw new IllegalArgumentException("Expected " + Masks.CELL_COUNT + " masks, got " + masks.length);
+        }
+        this.masks = masks.clone();
+    }
+
+    /**
+     * Works out the candidates of each cell in a Sudoku by removing the values already present in its row, column and
+     * box.
+     *
+     * @param sudoku The Sudoku to work from
+     * @return The candidates of the Sudoku
+     */
+    public static Candidates of(Sudoku sudoku) {
+        int[][] grid = sudoku.getGrid();
+        int[] rows = new int[Sudoku.GRID_SIZE];
+        int[] columns = new int[Sudoku.GRID_SIZE];
+        int[] boxes = new int[Sudoku.GRID_SIZE];
+        for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+            for (int y = 0; y < Sudoku.GRID_SIZE; y++) {
+                int value = grid[x][y];
+                if (value != 0) {
+                    int bit = Masks.bit(value);
+                    rows[y] |= bit;
+                    columns[x] |= bit;
+                    boxes[Masks.box(x, y)] |= bit;
+                }
+            }
+        }
+        Candidates candidates = new Candidates();
+        for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+            for (int y = 0; y < Sudoku.GRID_SIZE; y++) {
+                int value = grid[x][y];
+                if (value != 0) {
+                    candidates.masks[Masks.index(x, y)] = Masks.bit(value);
+                } else {
+                    candidates.masks[Masks.index(x, y)] = Masks.ALL & ~(rows[y] | columns[x] | boxes[Masks.box(x, y)]);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Copies the masks of these candidates into another set of candidates without allocating
+     *
+     * @param target The candidates to overwrite
+     */
+    public void copyInto(Candidates target) {
+        System.arraycopy(masks, 0, target.masks, 0, Masks.CELL_COUNT);
+    }
+
+    /**
+     * @return A copy of these candidates
+     */
+    public Candidates snapshot() {
+        return new Candidates(masks);
+    }
+
+    /**
+     * @param x absolute x
+     * @param y absolute y
+     * @return the candidate mask of the position
+     */
+    public int getMask(int x, int y) {
+        return masks[Masks.index(x, y)];
+    }
+
+    /**
+     * @param x    absolute x
+     * @param y    absolute y
+     * @param mask the new candidate mask of the position
+     */
+    public void setMask(int x, int y, int mask) {
+        masks[Masks.index(x, y)] = mask & Masks.ALL;
+    }
+
+    /**
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value value between 1-9
+     * @return true if the value is still a candidate of the position
+     */
+    public boolean contains(int x, int y, int value) {
+        return (masks[Masks.index(x, y)] & Masks.bit(value)) != 0;
+    }
+
+    /**
+     * Removes a value from the candidates of a position
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value value between 1-9
+     * @return true if the value was a candidate before being removed
+     */
+    public boolean remove(int x, int y, int value) {
+        int index = Masks.index(x, y);
+        int before = masks[index];
+        masks[index] = before & ~Masks.bit(value);
+        return before != masks[index];
+    }
+
+    /**
+     * @param x absolute x
+     * @param y absolute y
+     * @return how many candidates the position has left
+     */
+    public int count(int x, int y) {
+        return Masks.count(masks[Masks.index(x, y)]);
+    }
+
+    /**
+     * Gets a reference to the internal mask array, indexed by {@link Masks#index(int, int)}.<br />
+     * <b>Warning:</b> Doesn't run any kind of validation. Should only be used when speed is of concern
+     *
+     * @return a reference to the internal mask array
+     */
+    public int[] getMasks() {
+        return masks;
+    }
+
+    /**
+     * Returns the candidates as a grid of 9 rows, each cell being the list of its candidate values in brackets.
+     *
+     * @return a string version of the candidates
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y < Sudoku.GRID_SIZE; y++) {
+            for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+                int mask = masks[Masks.index(x, y)];
+                builder.append('[');
+                for (int value = 1; value <= Sudoku.GRID_SIZE; value++) {
+                    if ((mask & Masks.bit(value)) != 0) {
+                        builder.append(value);
+                    }
+                }
+                builder.append(']');
+            }
+            if (y < Sudoku.GRID_SIZE - 1) {
+                builder.append('\n');
+            }
+        }
+        return builder.toString();
+    }
+}
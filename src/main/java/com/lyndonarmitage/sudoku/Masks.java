@@ -0,0 +1,81 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * Helpers for working with Sudoku cells as bit masks of candidate values.<br />
+ * Cells are addressed by a single index of <code>y * GRID_SIZE + x</code> and the value <code>v</code> is stored in
+ * bit <code>v - 1</code>, so a mask of {@link Masks#ALL} means any value can go in a cell.
+ */
+public final class Masks {
+
+    public static final int CELL_COUNT = Sudoku.GRID_SIZE * Sudoku.GRID_SIZE;
+    public static final int ALL = (1 << Sudoku.GRID_SIZE) - 1;
+
+    private Masks() {
+    }
+
+    /**
+     * @param value a value between 1-9
+     * @return the mask with only the given value set
+     */
+    public static int bit(int value) {
+        return 1 << (value - 1);
+    }
+
+    /**
+     * @param mask a mask
+     * @return the lowest value contained in the mask, or 0 if the mask is empty
+     */
+    public static int valueOf(int mask) {
+        return mask == 0 ? 0 : Integer.numberOfTrailingZeros(mask) + 1;
+    }
+
+    /**
+     * @param mask a mask
+     * @return how many values the mask contains
+     */
+    public static int count(int mask) {
+        return Integer.bitCount(mask);
+    }
+
+    /**
+     * @param mask a mask
+     * @return true if the mask contains exactly one value
+     */
+    public static boolean isSingle(int mask) {
+        return mask != 0 && (mask & (mask - 1)) == 0;
+    }
+
+    /**
+     * @param x absolute x
+     * @param y absolute y
+     * @return the cell index of the position
+     */
+    public static int index(int x, int y) {
+        return y * Sudoku.GRID_SIZE + x;
+    }
+
+    /**
+     * @param index cell index
+     * @return the absolute x of the cell
+     */
+    public static int x(int index) {
+        return index % Sudoku.GRID_SIZE;
+    }
+
+    /**
+     * @param index cell index
+     * @return the absolute y of the cell
+     */
+    public static int y(int index) {
+        return index / Sudoku.GRID_SIZE;
+    }
+
+    /**
+     * @param x absolute x
+     * @param y absolute y
+     * @return the box number (0-8, left to right then top to bottom) the position is in
+     */
+    public static int box(int x, int y) {
+        return (y / Sudoku.BOX_SIZE) * Sudoku.BOX_COUNT + x / Sudoku.BOX_SIZE;
+    }
+}
@@ -0,0 +1,40 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * Base for solvers that report their steps to a {@link SolverListener}.<br />
+ * The listener is null until one is set and subclasses check for null before building any event, so a solver with no
+ * listener does no more work than one without the hooks.<br />
+ * What is reported depends on the solver:
+ * <ul>
+ * <li>the logic solvers report each technique and every value they place or rule out</li>
+ * <li>{@link com.lyndonarmitage.sudoku.solvers.BacktrackingSolver} reports every guess and backtrack, and every value
+ * its propagation places or rules out. A guess at some depth first undoes everything since the previous guess at that
+ * depth, and a backtrack from a depth undoes everything since its first guess, so keeping a copy of the grid from
+ * before the first guess at each depth is enough to replay the solve step by step</li>
+ * <li>{@link com.lyndonarmitage.sudoku.solvers.CdclSolver} reports every value placed or ruled out and the guesses that
+ * place a value, but not its jumps back after conflicts, so can be traced but not replayed</li>
+ * <li>{@link com.lyndonarmitage.sudoku.solvers.ParallelSolver} reports the propagation of the givens, the guesses of
+ * all its tasks at once and the values of the solution found, but not what each task propagates</li>
+ * </ul>
+ */
+public abstract class ObservableSolver implements SudokuSolver {
+
+    /**
+     * The listener to report to, null if there is none
+     */
+    protected SolverListener listener;
+
+    /**
+     * @param listener the listener to report steps to, or null to stop reporting
+     */
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the listener steps are reported to, null if there is none
+     */
+    public SolverListener getListener() {
+        return listener;
+    }
+}
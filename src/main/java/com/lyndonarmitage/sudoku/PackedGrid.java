@@ -0,0 +1,242 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * An immutable, compact copy of a Sudoku grid for use as a key in large maps and sets.<br />
+ * Each run of three cells is stored as a number between 0 and 999 in 10 bits, six runs to a <code>long</code>, so the
+ * 81 cells take five longs (56 bytes an instance on a typical JVM, against over 500 for a {@link Sudoku}). Runs are
+ * stored first cell first from the top of each word, which makes comparing the words in order the same as comparing
+ * the grids cell by cell, so the natural ordering is the same as ordering by {@link PackedGrid#toLine()}.<br />
+ * Cells are indexed by {@link Masks#index(int, int)} and hold values 0-9, 0 being empty.
+ */
+public final class PackedGrid implements Comparable<PackedGrid> {
+
+    private static final int CELLS_PER_RUN = 3;
+    private static final int RUN_BITS = 10;
+    private static final int RUNS_PER_WORD = 6;
+    private static final int RUN_COUNT = Masks.CELL_COUNT / CELLS_PER_RUN;
+    private static final int[] POWERS = {100, 10, 1};
+
+    private final long w0;
+    private final long w1;
+    private final long w2;
+    private final long w3;
+    private final long w4;
+
+    private PackedGrid(long w0, long w1, long w2, long w3, long w4) {
+        this.w0 = w0;
+        this.w1 = w1;
+        this.w2 = w2;
+        this.w3 = w3;
+        this.w4 = w4;
+    }
+
+    /**
+     * @param cells {@link Masks#CELL_COUNT} values between 0-9 indexed by {@link Masks#index(int, int)}
+     * @return the packed grid
+     */
+    public static PackedGrid of(int[] cells) {
+        if (cells.length != Masks.CELL_COUNT) {
+            throw new IllegalArgumentException("Expected " + Masks.CELL_COUNT + " cells, got " + cells.length);
+        }
+        long[] words = new long[5];
+        for (int run = 0; run < RUN_COUNT; run++) {
+            int cell = run * CELLS_PER_RUN;
+            int value = digit(cells, cell) * 100 + digit(cells, cell + 1) * 10 + digit(cells, cell + 2);
+            words[run / RUNS_PER_WORD] |= (long) value << shiftOf(run);
+        }
+        return new PackedGrid(words[0], words[1], words[2], words[3], words[4]);
+    }
+
+    /**
+     * @param sudoku the Sudoku to copy
+     * @return the packed grid
+     */
+    public static PackedGrid of(Sudoku sudoku) {
+        return of(sudoku.toCells(new int[Masks.CELL_COUNT]));
+    }
+
+    /**
+     * @param line a grid in the single line format of {@link Sudoku#toLine()}, '.' is also accepted for empty cells
+     * @return the packed grid
+     */
+    public static PackedGrid parse(String line) {
+        if (line.length() != Masks.CELL_COUNT) {
+            throw new IllegalArgumentException("Expected " + Masks.CELL_COUNT + " characters, got " + line.length());
+        }
+        int[] cells = new int[Masks.CELL_COUNT];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            char c = line.charAt(i);
+            if (c == '.') {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' at " + i);
+            }
+            cells[i] = c - '0';
+        }
+        return of(cells);
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the value of the cell, 0 if it is empty
+     */
+    public int get(int cell) {
+        if (cell < 0 || cell >= Masks.CELL_COUNT) {
+            throw new IndexOutOfBoundsException("Cell " + cell);
+        }
+        int run = cell / CELLS_PER_RUN;
+        int value = (int) (word(run / RUNS_PER_WORD) >>> shiftOf(run)) & ((1 << RUN_BITS) - 1);
+        return value / POWERS[cell % CELLS_PER_RUN] % 10;
+    }
+
+    /**
+     * @param x the column
+     * @param y the row
+     * @return the value at the position, 0 if it is empty
+     */
+    public int get(int x, int y) {
+        return get(Masks.index(x, y));
+    }
+
+    /**
+     * @param into {@link Masks#CELL_COUNT} cells to fill, indexed by {@link Masks#index(int, int)}
+     * @return the filled array
+     */
+    public int[] toCells(int[] into) {
+        for (int run = 0; run < RUN_COUNT; run++) {
+            int value = (int) (word(run / RUNS_PER_WORD) >>> shiftOf(run)) & ((1 << RUN_BITS) - 1);
+            int cell = run * CELLS_PER_RUN;
+            into[cell] = value / 100;
+            into[cell + 1] = value / 10 % 10;
+            into[cell + 2] = value % 10;
+        }
+        return into;
+    }
+
+    /**
+     * @return a new Sudoku with the same grid
+     * @throws SudokuException
+     */
+    public Sudoku toSudoku() throws SudokuException {
+        int[] cells = toCells(new int[Masks.CELL_COUNT]);
+        // the array constructor takes rows first
+        int[][] rows = new int[Sudoku.GRID_SIZE][Sudoku.GRID_SIZE];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            rows[Masks.y(i)][Masks.x(i)] = cells[i];
+        }
+        return new Sudoku(rows);
+    }
+
+    /**
+     * @return the number of filled in cells
+     */
+    public int getHints() {
+        int hints = 0;
+        for (int cell = 0; cell < Masks.CELL_COUNT; cell++) {
+            if (get(cell) != 0) {
+                hints++;
+            }
+        }
+        return hints;
+    }
+
+    /**
+     * @return the grid in the single line format, the same as {@link Sudoku#toLine()}
+     */
+    public String toLine() {
+        int[] cells = toCells(new int[Masks.CELL_COUNT]);
+        char[] chars = new char[Masks.CELL_COUNT];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            chars[i] = (char) ('0' + cells[i]);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PackedGrid)) {
+            return false;
+        }
+        PackedGrid grid = (PackedGrid) other;
+        return w0 == grid.w0 && w1 == grid.w1 && w2 == grid.w2 && w3 == grid.w3 && w4 == grid.w4;
+    }
+
+    /**
+     * Every bit of every word affects every bit of the hash, so grids differing in a single cell don't collide in hash
+     * tables that only use the low bits
+     */
+    @Override
+    public int hashCode() {
+        long hash = 0x9E3779B97F4A7C15L;
+        hash = (hash ^ w0) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ w1) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ w2) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ w3) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ w4) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 29;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Orders grids cell by cell, the same as comparing their {@link PackedGrid#toLine()} strings
+     */
+    @Override
+    public int compareTo(PackedGrid other) {
+        // every word is under 2^60 so signed comparison is fine
+        int compare = Long.compare(w0, other.w0);
+        if (compare == 0) {
+            compare = Long.compare(w1, other.w1);
+        }
+        if (compare == 0) {
+            compare = Long.compare(w2, other.w2);
+        }
+        if (compare == 0) {
+            compare = Long.compare(w3, other.w3);
+        }
+        if (compare == 0) {
+            compare = Long.compare(w4, other.w4);
+        }
+        return compare;
+    }
+
+    @Override
+    public String toString() {
+        return toLine();
+    }
+
+    private long word(int index) {
+        switch (index) {
+            case 0:
+                return w0;
+            case 1:
+                return w1;
+            case 2:
+                return w2;
+            case 3:
+                return w3;
+            default:
+                return w4;
+        }
+    }
+
+    /**
+     * The first run of a word goes in its highest bits so words compare in cell order
+     */
+    private static int shiftOf(int run) {
+        return (RUNS_PER_WORD - 1 - run % RUNS_PER_WORD) * RUN_BITS;
+    }
+
+    private static int digit(int[] cells, int cell) {
+        int value = cells[cell];
+        if (value < 0 || value > Sudoku.GRID_SIZE) {
+            throw new IllegalArgumentException("Invalid value " + value + " in cell " + cell);
+        }
+        return value;
+    }
+}
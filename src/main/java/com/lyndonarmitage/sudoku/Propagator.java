@@ -0,0 +1,287 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * Candidate masks kept consistent by constraint propagation, for use by search.<br />
+ * Assigning a value eliminates every other candidate from the cell, and every elimination cascades straight away:
+ * <ul>
+ * <li>a cell left with one candidate has that value eliminated from its peers</li>
+ * <li>a unit left with one place for a value has that value assigned there</li>
+ * </ul>
+ * The cascade runs to completion using an explicit stack rather than recursion and stops as soon as a cell or unit is
+ * left with no options, so a contradiction is found at the move that caused it.<br />
+ * The units come from a {@link Regions} so variants propagate exactly the same way as standard Sudokus.<br />
+ * Every mask change is logged so a search can go back to an earlier point with {@link Propagator#mark()} and
+ * {@link Propagator#undo(int)} instead of copying the masks at every branch.<br />
+ * A {@link SolverListener} can be told about every candidate removed and every cell left with a single value, which is
+ * how searching solvers report what propagation does between their guesses.<br />
+ * Instances are not thread safe.
+ */
+public class Propagator {
+
+    /**
+     * Returned by {@link Propagator#chooseCell()} when every cell is solved
+     */
+    public static final int COMPLETE = -1;
+
+    private static final int CELL_BITS = 7;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+    // masks only ever shrink between undos so a cell can change at most GRID_SIZE times
+    private static final int MAX_CHANGES = Masks.CELL_COUNT * Sudoku.GRID_SIZE;
+
+    private final int[][] units;
+    private final int[][] unitsOf;
+    private final int[][] peers;
+    private final int[] masks = new int[Masks.CELL_COUNT];
+    // entries are the old mask shifted above the cell index
+    private final int[] log = new int[MAX_CHANGES];
+    // entries are the eliminated bits shifted above the cell index
+    private final int[] pending = new int[MAX_CHANGES];
+    private int logSize;
+    private int pendingSize;
+    private SolverListener listener;
+
+    /**
+     * Create a propagator for standard Sudokus
+     */
+    public Propagator() {
+        this(Regions.STANDARD);
+    }
+
+    /**
+     * @param regions the units of the variant to propagate, for example {@link Regions#diagonal()}
+     */
+    public Propagator(Regions regions) {
+        this.units = regions.getUnits();
+        this.unitsOf = regions.unitsOfTable();
+        this.peers = regions.peersTable();
+    }
+
+    /**
+     * @param listener told about every elimination and placement from now on, or null to stop reporting
+     */
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Start again from the given cells, assigning every filled in value and propagating.
+     *
+     * @param cells {@link Masks#CELL_COUNT} values between 0-9 indexed by {@link Masks#index(int, int)}
+     * @return false if the values are out of range or contradict each other
+     */
+    public boolean load(int[] cells) {
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            masks[i] = Masks.ALL;
+        }
+        logSize = 0;
+        pendingSize = 0;
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int value = cells[i];
+            if (value < 0 || value > Sudoku.GRID_SIZE) {
+                return false;
+            }
+            if (value != 0 && !assign(i, Masks.bit(value))) {
+                return false;
+            }
+        }
+        // the loaded state is the new starting point
+        logSize = 0;
+        return true;
+    }
+
+    /**
+     * Start again from a copy of the given candidate masks, which are assumed to be already propagated (for example
+     * taken from {@link Propagator#getMasks()} of another instance).
+     *
+     * @param from {@link Masks#CELL_COUNT} candidate masks
+     */
+    public void restore(int[] from) {
+        System.arraycopy(from, 0, masks, 0, Masks.CELL_COUNT);
+        logSize = 0;
+        pendingSize = 0;
+    }
+
+    /**
+     * Make this an exact copy of another propagator, including its undo log so the copy can be undone to any mark taken
+     * from the other
+     *
+     * @param other the propagator to copy
+     */
+    public void copyFrom(Propagator other) {
+        System.arraycopy(other.masks, 0, masks, 0, Masks.CELL_COUNT);
+        System.arraycopy(other.log, 0, log, 0, other.logSize);
+        logSize = other.logSize;
+        pendingSize = 0;
+    }
+
+    /**
+     * Assign a value to a cell and propagate the consequences
+     *
+     * @param cell the cell index
+     * @param bit  the mask bit of the value
+     * @return false if this leads to a contradiction, in which case the masks should be undone
+     */
+    public boolean assign(int cell, int bit) {
+        return eliminate(cell, Masks.ALL & ~bit);
+    }
+
+    /**
+     * Remove candidates from a cell and propagate the consequences
+     *
+     * @param cell the cell index
+     * @param bits the mask bits to remove
+     * @return false if this leads to a contradiction, in which case the masks should be undone
+     */
+    public boolean eliminate(int cell, int bits) {
+        if (!remove(cell, bits) || !propagate()) {
+            pendingSize = 0;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return a marker for the current state that can later be passed to {@link Propagator#undo(int)}
+     */
+    public int mark() {
+        return logSize;
+    }
+
+    /**
+     * Go back to the state when the mark was taken
+     *
+     * @param mark a value from {@link Propagator#mark()}
+     */
+    public void undo(int mark) {
+        if (mark < 0 || mark > logSize) {
+            throw new IllegalArgumentException("Invalid mark " + mark + ", log size is " + logSize);
+        }
+        while (logSize > mark) {
+            int entry = log[--logSize];
+            masks[entry & CELL_MASK] = entry >>> CELL_BITS;
+        }
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the candidate mask of the cell
+     */
+    public int getMask(int cell) {
+        return masks[cell];
+    }
+
+    /**
+     * <b>Warning:</b> Do not modify the returned array.
+     *
+     * @return the candidate masks, indexed by {@link Masks#index(int, int)}
+     */
+    public int[] getMasks() {
+        return masks;
+    }
+
+    /**
+     * @return the unsolved cell with the fewest candidates, the best one to branch on, or
+     * {@link Propagator#COMPLETE} if every cell is solved
+     */
+    public int chooseCell() {
+        int best = COMPLETE;
+        int bestCount = Sudoku.GRID_SIZE + 1;
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int count = Masks.count(masks[i]);
+            if (count > 1 && count < bestCount) {
+                best = i;
+                bestCount = count;
+                if (count == 2) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Write the values of every cell with a single candidate into the given cells, other cells are set to 0
+     *
+     * @param cells {@link Masks#CELL_COUNT} cells to fill
+     */
+    public void fill(int[] cells) {
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int mask = masks[i];
+            cells[i] = Masks.isSingle(mask) ? Masks.valueOf(mask) : 0;
+        }
+    }
+
+    private boolean remove(int cell, int bits) {
+        int mask = masks[cell];
+        int removed = mask & bits;
+        if (removed == 0) {
+            return true;
+        }
+        log[logSize++] = mask << CELL_BITS | cell;
+        mask &= ~removed;
+        masks[cell] = mask;
+        if (listener != null) {
+            report(cell, removed, mask);
+        }
+        if (mask == 0) {
+            return false;
+        }
+        pending[pendingSize++] = removed << CELL_BITS | cell;
+        return true;
+    }
+
+    private void report(int cell, int removed, int mask) {
+        int x = Masks.x(cell);
+        int y = Masks.y(cell);
+        while (removed != 0) {
+            int bit = removed & -removed;
+            removed ^= bit;
+            listener.eliminated(x, y, Masks.valueOf(bit));
+        }
+        if (Masks.isSingle(mask)) {
+            listener.placed(x, y, Masks.valueOf(mask));
+        }
+    }
+
+    private boolean propagate() {
+        while (pendingSize > 0) {
+            int entry = pending[--pendingSize];
+            int cell = entry & CELL_MASK;
+            int removed = entry >>> CELL_BITS;
+            int mask = masks[cell];
+            if (Masks.isSingle(mask)) {
+                for (int peer : peers[cell]) {
+                    if (!remove(peer, mask)) {
+                        return false;
+                    }
+                }
+            }
+            // each removed value may now only fit in one place in the units of the cell
+            for (int unit : unitsOf[cell]) {
+                int[] unitCells = units[unit];
+                int values = removed;
+                while (values != 0) {
+                    int bit = values & -values;
+                    values ^= bit;
+                    int place = -1;
+                    int places = 0;
+                    for (int other : unitCells) {
+                        if ((masks[other] & bit) != 0) {
+                            place = other;
+                            if (++places > 1) {
+                                break;
+                            }
+                        }
+                    }
+                    if (places == 0) {
+                        return false;
+                    }
+                    if (places == 1 && !remove(place, Masks.ALL & ~bit)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,227 @@
+package com.lyndonarmitage.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * The constraint structure of a Sudoku variant: the units (groups of 9 cells that must each hold 1-9 once) and the
+ * tables derived from them, all worked out up front.<br />
+ * The standard rows, columns and boxes are {@link Regions#STANDARD}. Variants are just different tables so the
+ * engines that take a Regions, such as {@link Propagator}, solve them with exactly the same code:
+ * <ul>
+ * <li>{@link Regions#diagonal()} adds the two long diagonals (X-Sudoku)</li>
+ * <li>{@link Regions#windoku()} adds four extra 3x3 windows</li>
+ * <li>{@link Regions#jigsaw(int[])} replaces the boxes with irregular regions</li>
+ * <li>{@link Regions#of(int[][])} takes any set of units</li>
+ * </ul>
+ * Cells are {@link Masks#index(int, int) cell indexes}.<br />
+ * <b>Warning:</b> The arrays returned are shared, they must not be modified.
+ */
+public final class Regions {
+
+    /**
+     * Rows, columns and 3x3 boxes, the same units as {@link Units}
+     */
+    public static final Regions STANDARD = new Regions("standard", Units.CELLS);
+
+    private final String name;
+    private final int[][] units;
+    private final int[][] unitsOf;
+    private final int[][] peers;
+
+    private Regions(String name, int[][] units) {
+        this.name = name;
+        this.units = units;
+        int[] counts = new int[Masks.CELL_COUNT];
+        for (int[] unit : units) {
+            for (int cell : unit) {
+                counts[cell]++;
+            }
+        }
+        this.unitsOf = new int[Masks.CELL_COUNT][];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            unitsOf[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int u = 0; u < units.length; u++) {
+            for (int cell : units[u]) {
+                unitsOf[cell][counts[cell]++] = u;
+            }
+        }
+        this.peers = new int[Masks.CELL_COUNT][];
+        boolean[] seen = new boolean[Masks.CELL_COUNT];
+        int[] buffer = new int[Masks.CELL_COUNT];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int count = 0;
+            for (int u : unitsOf[i]) {
+                for (int cell : units[u]) {
+                    if (cell != i && !seen[cell]) {
+                        seen[cell] = true;
+                        buffer[count++] = cell;
+                    }
+                }
+            }
+            peers[i] = Arrays.copyOf(buffer, count);
+            Arrays.sort(peers[i]);
+            for (int j = 0; j < count; j++) {
+                seen[buffer[j]] = false;
+            }
+        }
+    }
+
+    /**
+     * @param units every unit, each holding {@link Sudoku#GRID_SIZE} distinct cell indexes
+     * @return regions made of the given units
+     */
+    public static Regions of(int[][] units) {
+        return of("custom", units);
+    }
+
+    /**
+     * @return the standard units plus the two long diagonals
+     */
+    public static Regions diagonal() {
+        int[][] units = standardPlus(2);
+        for (int i = 0; i < Sudoku.GRID_SIZE; i++) {
+            units[Units.UNIT_COUNT][i] = Masks.index(i, i);
+            units[Units.UNIT_COUNT + 1][i] = Masks.index(Sudoku.GRID_SIZE - 1 - i, i);
+        }
+        return of("diagonal", units);
+    }
+
+    /**
+     * @return the standard units plus the four 3x3 windows starting at (1,1), (5,1), (1,5) and (5,5)
+     */
+    public static Regions windoku() {
+        int[][] units = standardPlus(4);
+        for (int w = 0; w < 4; w++) {
+            int left = 1 + (w % 2) * 4;
+            int top = 1 + (w / 2) * 4;
+            for (int i = 0; i < Sudoku.GRID_SIZE; i++) {
+                units[Units.UNIT_COUNT + w][i] = Masks.index(left + i % Sudoku.BOX_SIZE, top + i / Sudoku.BOX_SIZE);
+            }
+        }
+        return of("windoku", units);
+    }
+
+    /**
+     * @param regionOfCell the region (0-8) of each cell, indexed by {@link Masks#index(int, int)}
+     * @return rows, columns and the given irregular regions instead of boxes
+     */
+    public static Regions jigsaw(int[] regionOfCell) {
+        if (regionOfCell.length != Masks.CELL_COUNT) {
+            throw new IllegalArgumentException("Expected " + Masks.CELL_COUNT + " cells but got " + regionOfCell.length);
+        }
+        int[][] units = new int[Units.UNIT_COUNT][];
+        for (int u = 0; u < Sudoku.GRID_SIZE * 2; u++) {
+            units[u] = Units.CELLS[u];
+        }
+        int[] sizes = new int[Sudoku.GRID_SIZE];
+        for (int i = Sudoku.GRID_SIZE * 2; i < Units.UNIT_COUNT; i++) {
+            units[i] = new int[Sudoku.GRID_SIZE];
+        }
+        for (int cell = 0; cell < Masks.CELL_COUNT; cell++) {
+            int region = regionOfCell[cell];
+            if (region < 0 || region >= Sudoku.GRID_SIZE || sizes[region] == Sudoku.GRID_SIZE) {
+                throw new IllegalArgumentException("Region " + region + " of cell " + cell + " is out of range or full");
+            }
+            units[Sudoku.GRID_SIZE * 2 + region][sizes[region]++] = cell;
+        }
+        return of("jigsaw", units);
+    }
+
+    private static Regions of(String name, int[][] units) {
+        for (int[] unit : units) {
+            if (unit.length != Sudoku.GRID_SIZE) {
+                throw new IllegalArgumentException("Units must have " + Sudoku.GRID_SIZE + " cells, got " + unit.length);
+            }
+            boolean[] seen = new boolean[Masks.CELL_COUNT];
+            for (int cell : unit) {
+                if (cell < 0 || cell >= Masks.CELL_COUNT || seen[cell]) {
+                    throw new IllegalArgumentException("Invalid cell " + cell + " in unit " + Arrays.toString(unit));
+                }
+                seen[cell] = true;
+            }
+        }
+        return new Regions(name, units);
+    }
+
+    private static int[][] standardPlus(int extra) {
+        int[][] units = Arrays.copyOf(Units.CELLS, Units.UNIT_COUNT + extra);
+        for (int i = Units.UNIT_COUNT; i < units.length; i++) {
+            units[i] = new int[Sudoku.GRID_SIZE];
+        }
+        return units;
+    }
+
+    /**
+     * @return the number of units
+     */
+    public int getUnitCount() {
+        return units.length;
+    }
+
+    /**
+     * @return the cells of each unit
+     */
+    public int[][] getUnits() {
+        return units;
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the units the cell is in
+     */
+    public int[] getUnitsOf(int cell) {
+        return unitsOf[cell];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the cells that share a unit with the cell, not including the cell itself
+     */
+    public int[] getPeers(int cell) {
+        return peers[cell];
+    }
+
+    int[][] unitsOfTable() {
+        return unitsOf;
+    }
+
+    int[][] peersTable() {
+        return peers;
+    }
+
+    /**
+     * @param cells {@link Masks#CELL_COUNT} values indexed by {@link Masks#index(int, int)}
+     * @return true if every unit holds each of 1-9 exactly once
+     */
+    public boolean isSolved(int[] cells) {
+        for (int[] unit : units) {
+            int seen = 0;
+            for (int cell : unit) {
+                int value = cells[cell];
+                if (value < 1 || value > Sudoku.GRID_SIZE) {
+                    return false;
+                }
+                seen |= Masks.bit(value);
+            }
+            if (seen != Masks.ALL) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param sudoku the Sudoku to check
+     * @return true if every unit of the Sudoku holds each of 1-9 exactly once
+     */
+    public boolean isSolved(Sudoku sudoku) {
+        return isSolved(sudoku.toCells(new int[Masks.CELL_COUNT]));
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + units.length + " units)";
+    }
+}
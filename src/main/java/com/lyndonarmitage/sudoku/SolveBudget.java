@@ -0,0 +1,117 @@
+package com.lyndonarmitage.sudoku;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on how much work a {@link BudgetedSolver} may do before giving up.<br />
+ * A budget can limit the number of search nodes visited, a timeout measured from the start of the solve and an
+ * absolute deadline (as a {@link System#nanoTime()} value). Whichever limit is hit first ends the solve.<br />
+ * Budgets are immutable so a single instance can be shared between solves.
+ */
+public final class SolveBudget {
+
+    /**
+     * A budget with no limits
+     */
+    public static final SolveBudget UNLIMITED = new SolveBudget(Long.MAX_VALUE, Long.MAX_VALUE, 0, false);
+
+    private final long maxNodes;
+    private final long timeoutNanos;
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+
+    private SolveBudget(long maxNodes, long timeoutNanos, long deadlineNanos, boolean hasDeadline) {
+        this.maxNodes = maxNodes;
+        this.timeoutNanos = timeoutNanos;
+        this.deadlineNanos = deadlineNanos;
+        this.hasDeadline = hasDeadline;
+    }
+
+    /**
+     * @param maxNodes the maximum number of search nodes to visit
+     * @return a budget limited to the given number of nodes
+     */
+    public static SolveBudget nodes(long maxNodes) {
+        return UNLIMITED.withMaxNodes(maxNodes);
+    }
+
+    /**
+     * @param timeout the maximum time to spend on each solve
+     * @param unit    the unit of the timeout
+     * @return a budget limited by time
+     */
+    public static SolveBudget timeout(long timeout, TimeUnit unit) {
+        return UNLIMITED.withTimeout(timeout, unit);
+    }
+
+    /**
+     * @param deadlineNanos a {@link System#nanoTime()} value after which solving should stop
+     * @return a budget that ends at the given deadline
+     */
+    public static SolveBudget deadline(long deadlineNanos) {
+        return UNLIMITED.withDeadline(deadlineNanos);
+    }
+
+    /**
+     * @param maxNodes the maximum number of search nodes to visit
+     * @return a copy of this budget limited to the given number of nodes
+     */
+    public SolveBudget withMaxNodes(long maxNodes) {
+        if (maxNodes < 0) {
+            throw new IllegalArgumentException("maxNodes must not be negative, was " + maxNodes);
+        }
+        return new SolveBudget(maxNodes, timeoutNanos, deadlineNanos, hasDeadline);
+    }
+
+    /**
+     * @param timeout the maximum time to spend on each solve
+     * @param unit    the unit of the timeout
+     * @return a copy of this budget limited by time
+     */
+    public SolveBudget withTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative, was " + timeout);
+        }
+        return new SolveBudget(maxNodes, unit.toNanos(timeout), deadlineNanos, hasDeadline);
+    }
+
+    /**
+     * @param deadlineNanos a {@link System#nanoTime()} value after which solving should stop
+     * @return a copy of this budget that ends at the given deadline
+     */
+    public SolveBudget withDeadline(long deadlineNanos) {
+        return new SolveBudget(maxNodes, timeoutNanos, deadlineNanos, true);
+    }
+
+    /**
+     * @return the maximum number of search nodes to visit
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * @return true if this budget limits time in any way
+     */
+    public boolean isTimed() {
+        return hasDeadline || timeoutNanos != Long.MAX_VALUE;
+    }
+
+    /**
+     * Works out the {@link System#nanoTime()} value a solve starting at the given time must stop by.
+     * Only meaningful if {@link SolveBudget#isTimed()} is true.
+     *
+     * @param startNanos the {@link System#nanoTime()} the solve started at
+     * @return the deadline of the solve
+     */
+    public long deadlineFrom(long startNanos) {
+        if (timeoutNanos == Long.MAX_VALUE) {
+            return deadlineNanos;
+        }
+        long timeoutDeadline = startNanos + timeoutNanos;
+        if (!hasDeadline || timeoutDeadline - deadlineNanos < 0) {
+            return timeoutDeadline;
+        }
+        return deadlineNanos;
+    }
+}
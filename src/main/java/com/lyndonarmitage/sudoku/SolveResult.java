@@ -0,0 +1,72 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * The result of a budgeted solve: its status along with the Sudoku and candidates reached.<br />
+ * When the budget runs out the Sudoku is left holding only the values the solver knows for certain, so it is always
+ * safe to show or carry on solving from.
+ *
+ * @see BudgetedSolver
+ */
+public class SolveResult {
+
+    private final SolveStatus status;
+    private final Sudoku sudoku;
+    private final Candidates candidates;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    public SolveResult(SolveStatus status, Sudoku sudoku, Candidates candidates, long nodes, long elapsedNanos) {
+        this.status = status;
+        this.sudoku = sudoku;
+        this.candidates = candidates;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return how the solve ended
+     */
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true if the Sudoku was solved
+     */
+    public boolean isSolved() {
+        return status == SolveStatus.SOLVED;
+    }
+
+    /**
+     * @return the solved, or partially filled, Sudoku
+     */
+    public Sudoku getSudoku() {
+        return sudoku;
+    }
+
+    /**
+     * @return the candidates of the Sudoku as it was left
+     */
+    public Candidates getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * @return the number of search nodes visited
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return how long the solve took in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return status + " after " + nodes + " nodes in " + elapsedNanos + "ns\n" + sudoku.toString();
+    }
+}
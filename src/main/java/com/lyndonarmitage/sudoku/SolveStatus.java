@@ -0,0 +1,21 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * The outcome of a budgeted solve.
+ *
+ * @see BudgetedSolver
+ */
+public enum SolveStatus {
+    /**
+     * Every cell was filled in
+     */
+    SOLVED,
+    /**
+     * The time or node budget ran out before a solution was found
+     */
+    BUDGET_EXHAUSTED,
+    /**
+     * The Sudoku has no solution
+     */
+    UNSOLVABLE
+}
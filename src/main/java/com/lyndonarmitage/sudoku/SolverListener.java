@@ -0,0 +1,69 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * Callbacks describing the steps a solver takes, for tracing, visualising or replaying a solve.<br />
+ * Register one with {@link ObservableSolver#setListener(SolverListener)}. Every method does nothing by default so only
+ * the events of interest need to be overridden. Positions are absolute x and y as used by
+ * {@link Sudoku#getAbsolute(int, int)}.<br />
+ * Listeners are called on the solving thread, in the middle of the solve, so should be quick.
+ */
+public interface SolverListener {
+
+    /**
+     * A value has been placed in a cell
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value the value placed
+     */
+    default void placed(int x, int y, int value) {
+    }
+
+    /**
+     * A candidate has been ruled out for a cell
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value the value ruled out
+     */
+    default void eliminated(int x, int y, int value) {
+    }
+
+    /**
+     * The solver has started applying a technique
+     *
+     * @param technique the name of the technique
+     */
+    default void techniqueStarted(String technique) {
+    }
+
+    /**
+     * The solver has finished applying a technique
+     *
+     * @param technique the name of the technique
+     * @param changes   how many values were placed (or candidates removed) by it
+     */
+    default void techniqueFinished(String technique, int changes) {
+    }
+
+    /**
+     * A search has guessed a value for a cell
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value the value guessed
+     * @param depth how many guesses deep the search is, starting from 0
+     */
+    default void branched(int x, int y, int value, int depth) {
+    }
+
+    /**
+     * A search has run out of values to guess for a cell and gone back to the previous guess
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param depth the depth of the guess being abandoned
+     */
+    default void backtracked(int x, int y, int depth) {
+    }
+}
@@ -82,6 +82,28 @@ public class Sudoku {
         return grid;
     }
 
+    /**
+     * Copies the values of this Sudoku into another one without any validation or allocation.
+     *
+     * @param target The Sudoku to overwrite
+     */
+    public void copyInto(Sudoku target) {
+        for (int x = 0; x < GRID_SIZE; x++) {
+            System.arraycopy(this.grid[x], 0, target.grid[x], 0, GRID_SIZE);
+        }
+    }
+
+    /**
+     * Makes a copy of this Sudoku without going through any of the validation in {@link Sudoku#parseArray(int[][])}
+     *
+     * @return A new Sudoku with the same values as this one
+     */
+    public Sudoku snapshot() {
+        Sudoku copy = new Sudoku();
+        copyInto(copy);
+        return copy;
+    }
+
     /**
      * Parses a Sudoku as a 2D array.
      * The given array will be validated and copied into the new Sudoku
@@ -148,6 +170,7 @@ public class Sudoku {
      * 800203009
      * 005010300
      * </pre>
+     * A single line of 81 characters is also accepted, see {@link Sudoku#parseLine(CharSequence)}
      *
      * @param sudoku The Sudoku string
      * @throws SudokuException
@@ -157,6 +180,10 @@ public class Sudoku {
         if (sudoku == null || sudoku.length() <= 0) {
             throw new SudokuException(this, "Cannot parse empty/null string as a Sudoku");
         }
+        if (sudoku.length() == GRID_SIZE * GRID_SIZE && sudoku.indexOf('\n') < 0) {
+            parseLine(sudoku);
+            return;
+        }
         String[] rows = sudoku.split("\\r?\\n");
         if (rows.length != 9) {
             throw new SudokuException(this, "Couldn't parse String, wrong number of rows. Found " + rows.length + " should be 9");
@@ -179,6 +206,86 @@ public class Sudoku {
         }
     }
 
+    /**
+     * Parses a Sudoku written on a single line of 81 characters, row by row, into the internal 2D integer array.<br />
+     * Empty cells can be written as either <code>0</code> or <code>.</code>, for example: <br />
+     * <pre>
+     * 003020600900305001001806400008102900700000008006708200002609500800203009005010300
+     * </pre>
+     * Unlike the other parse methods the existing array is reused, so if the line is invalid the Sudoku is left
+     * partially overwritten.
+     *
+     * @param line The Sudoku line
+     * @throws SudokuException
+     */
+    public void parseLine(CharSequence line) throws SudokuException {
+        if (line == null || line.length() != GRID_SIZE * GRID_SIZE) {
+            throw new SudokuException(this, "Couldn't parse line, should be " + (GRID_SIZE * GRID_SIZE) + " characters long but was " + (line == null ? 0 : line.length()));
+        }
+        for (int i = 0; i < GRID_SIZE * GRID_SIZE; i++) {
+            char c = line.charAt(i);
+            int value;
+            if (c == '.') {
+                value = 0;
+            } else if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else {
+                throw new SudokuException(this, "Couldn't parse line, character " + i + " was " + c + " not a number between 0-9 or .");
+            }
+            this.grid[i % GRID_SIZE][i / GRID_SIZE] = value;
+        }
+    }
+
+    /**
+     * Copies a flat array of cells, as used by the solvers and the format readers, into the internal 2D integer array.
+     * <br />
+     * Like parseLine the existing array is reused, so if a value is invalid the Sudoku is left partially overwritten.
+     *
+     * @param cells {@link Masks#CELL_COUNT} values between 0-9 indexed by {@link Masks#index(int, int)}
+     * @throws SudokuException
+     */
+    public void parseCells(int[] cells) throws SudokuException {
+        if (cells == null || cells.length != GRID_SIZE * GRID_SIZE) {
+            throw new SudokuException(this, "Couldn't parse cells, should be " + (GRID_SIZE * GRID_SIZE) + " cells but was " + (cells == null ? 0 : cells.length));
+        }
+        for (int i = 0; i < GRID_SIZE * GRID_SIZE; i++) {
+            int value = cells[i];
+            if (value < 0 || value > 9) {
+                throw new SudokuException(this, "Couldn't parse cells, cell " + i + " was " + value + " not a number between 0-9");
+            }
+            this.grid[i % GRID_SIZE][i / GRID_SIZE] = value;
+        }
+    }
+
+    /**
+     * Copies the grid into a flat array of cells, the inverse of {@link Sudoku#parseCells(int[])}
+     *
+     * @param into {@link Masks#CELL_COUNT} cells to fill, indexed by {@link Masks#index(int, int)}
+     * @return the filled array
+     */
+    public int[] toCells(int[] into) {
+        for (int i = 0; i < GRID_SIZE * GRID_SIZE; i++) {
+            into[i] = this.grid[i % GRID_SIZE][i / GRID_SIZE];
+        }
+        return into;
+    }
+
+    /**
+     * Returns the Sudoku on a single line of 81 characters that can be parsed by the parseLine method
+     *
+     * @return A single line version of the Sudoku
+     * @see Sudoku#parseLine(CharSequence)
+     */
+    public String toLine() {
+        char[] chars = new char[GRID_SIZE * GRID_SIZE];
+        for (int y = 0; y < GRID_SIZE; y++) {
+            for (int x = 0; x < GRID_SIZE; x++) {
+                chars[y * GRID_SIZE + x] = (char) ('0' + this.grid[x][y]);
+            }
+        }
+        return new String(chars);
+    }
+
     /**
      * @return The number of filled in grid positions (out of 81)
      */
@@ -367,7 +474,19 @@ public class Sudoku {
      * @return a copy of the column
      */
     public int[] getColumn(int column) {
-        return this.grid[column].clone();
+        return getColumn(column, new int[GRID_SIZE]);
+    }
+
+    /**
+     * Copy the column into the given array rather than allocating a new one
+     *
+     * @param column column to copy
+     * @param into   array of at least {@link Sudoku#GRID_SIZE} to copy into
+     * @return the given array
+     */
+    public int[] getColumn(int column, int[] into) {
+        System.arraycopy(this.grid[column], 0, into, 0, GRID_SIZE);
+        return into;
     }
 
     /**
@@ -377,11 +496,21 @@ public class Sudoku {
      * @return a copy of the row
      */
     public int[] getRow(int row) {
-        int[] contents = new int[GRID_SIZE];
-        for (int y = 0; y < GRID_SIZE; y++) {
-            contents[y] = this.grid[y][row];
+        return getRow(row, new int[GRID_SIZE]);
+    }
+
+    /**
+     * Copy the row into the given array rather than allocating a new one
+     *
+     * @param row  row to copy
+     * @param into array of at least {@link Sudoku#GRID_SIZE} to copy into
+     * @return the given array
+     */
+    public int[] getRow(int row, int[] into) {
+        for (int x = 0; x < GRID_SIZE; x++) {
+            into[x] = this.grid[x][row];
         }
-        return contents;
+        return into;
     }
 
     /**
@@ -393,15 +522,74 @@ public class Sudoku {
      * @throws SudokuException
      */
     public int[][] getBox(int boxX, int boxY) throws SudokuException {
+        return getBox(boxX, boxY, new int[BOX_SIZE][BOX_SIZE]);
+    }
+
+    /**
+     * Copy the box into the given array rather than allocating a new one, laid out the same way as
+     * {@link Sudoku#getBox(int, int)}
+     *
+     * @param boxX Box x (0,1,2)
+     * @param boxY Box y (0,1,2)
+     * @param into {@link Sudoku#BOX_SIZE} by {@link Sudoku#BOX_SIZE} array to copy into
+     * @return the given array
+     * @throws SudokuException
+     */
+    public int[][] getBox(int boxX, int boxY, int[][] into) throws SudokuException {
         testRelative(boxX, boxY, 0, 0);
-        int[][] box = new int[BOX_SIZE][BOX_SIZE];
         for (int x = 0; x < BOX_SIZE; x++) {
             for (int y = 0; y < BOX_SIZE; y++) {
-                int value = getRelative(boxX, boxY, x, y);
-                box[y][x] = value; // fixed box being returned on its side when compared to toString
+                // fixed box being returned on its side when compared to toString
+                into[y][x] = this.grid[convertRelativeToAbsolute(boxX, x)][convertRelativeToAbsolute(boxY, y)];
             }
         }
-        return box;
+        return into;
+    }
+
+    /**
+     * @param row row to check
+     * @return a mask of the values present in the row, value v being bit v - 1 as in {@link Masks#bit(int)}
+     */
+    public int getRowMask(int row) {
+        int mask = 0;
+        for (int x = 0; x < GRID_SIZE; x++) {
+            mask |= valueBit(this.grid[x][row]);
+        }
+        return mask;
+    }
+
+    /**
+     * @param column column to check
+     * @return a mask of the values present in the column, value v being bit v - 1 as in {@link Masks#bit(int)}
+     */
+    public int getColumnMask(int column) {
+        int[] values = this.grid[column];
+        int mask = 0;
+        for (int y = 0; y < GRID_SIZE; y++) {
+            mask |= valueBit(values[y]);
+        }
+        return mask;
+    }
+
+    /**
+     * @param boxX Box x (0,1,2)
+     * @param boxY Box y (0,1,2)
+     * @return a mask of the values present in the box, value v being bit v - 1 as in {@link Masks#bit(int)}
+     * @throws SudokuException
+     */
+    public int getBoxMask(int boxX, int boxY) throws SudokuException {
+        testRelative(boxX, boxY, 0, 0);
+        int mask = 0;
+        for (int x = boxX * BOX_SIZE; x < (boxX + 1) * BOX_SIZE; x++) {
+            for (int y = boxY * BOX_SIZE; y < (boxY + 1) * BOX_SIZE; y++) {
+                mask |= valueBit(this.grid[x][y]);
+            }
+        }
+        return mask;
+    }
+
+    private static int valueBit(int value) {
+        return value > 0 && value <= GRID_SIZE ? Masks.bit(value) : 0;
     }
 
     /**
@@ -585,6 +773,18 @@ public class Sudoku {
         solver.solve(this);
     }
 
+    /**
+     * Attempt to solve the Sudoku using the given solver, giving up once the budget runs out.
+     *
+     * @param solver A solver that can work within a budget
+     * @param budget The limits on the solve
+     * @return The status of the solve along with the candidates reached
+     * @throws SudokuException
+     */
+    public SolveResult solve(BudgetedSolver solver, SolveBudget budget) throws SudokuException {
+        return solver.solve(this, budget);
+    }
+
     /**
      * Returns a string version of the Sudoku that can be parsed by the parseString method
      *
@@ -0,0 +1,144 @@
+package com.lyndonarmitage.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * An undo log for changes to a Sudoku and its candidates.<br />
+ * Every change made through the trail pushes a single int recording what was overwritten, so going back to an earlier
+ * point is a matter of popping entries rather than copying the whole grid. Typical use when branching:
+ * <pre>
+ * int mark = trail.mark();
+ * trail.set(x, y, value);
+ * ...
+ * trail.undo(mark); // back to how it was before the set
+ * </pre>
+ */
+public class Trail {
+
+    private static final int KIND_CELL = 0;
+    private static final int KIND_MASK = 1;
+    private static final int INDEX_SHIFT = 1;
+    private static final int OLD_SHIFT = 8;
+    private static final int INDEX_MASK = 0x7F;
+
+    private final Sudoku sudoku;
+    private final Candidates candidates;
+    private int[] entries;
+    private int size;
+
+    /**
+     * Create a trail for changes to a Sudoku only
+     *
+     * @param sudoku The Sudoku to track
+     */
+    public Trail(Sudoku sudoku) {
+        this(sudoku, null);
+    }
+
+    /**
+     * Create a trail for changes to a Sudoku and its candidates
+     *
+     * @param sudoku     The Sudoku to track
+     * @param candidates The candidates to track, may be null if only the Sudoku will be changed
+     */
+    public Trail(Sudoku sudoku, Candidates candidates) {
+        this.sudoku = sudoku;
+        this.candidates = candidates;
+        this.entries = new int[Masks.CELL_COUNT * 4];
+    }
+
+    /**
+     * @return A marker for the current point in the trail that can later be passed to {@link Trail#undo(int)}
+     */
+    public int mark() {
+        return size;
+    }
+
+    /**
+     * @return The number of changes recorded
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Set the value of a cell, recording its old value.<br />
+     * <b>Note:</b> Like {@link Sudoku#getGrid()} this doesn't validate the value.
+     *
+     * @param x     absolute x
+     * @param y     absolute y
+     * @param value the value to set it to (0 means empty)
+     */
+    public void set(int x, int y, int value) {
+        int[][] grid = sudoku.getGrid();
+        push(KIND_CELL, Masks.index(x, y), grid[x][y]);
+        grid[x][y] = value;
+    }
+
+    /**
+     * Set the candidate mask of a cell, recording its old mask.
+     *
+     * @param index the {@link Masks#index(int, int) index} of the cell
+     * @param mask  the new candidate mask
+     */
+    public void setMask(int index, int mask) {
+        int[] masks = candidates.getMasks();
+        push(KIND_MASK, index, masks[index]);
+        masks[index] = mask;
+    }
+
+    /**
+     * Remove candidates from a cell, only recording the change if a candidate was actually removed.
+     *
+     * @param index   the {@link Masks#index(int, int) index} of the cell
+     * @param removed the mask of candidates to remove
+     * @return true if the cell's candidates changed
+     */
+    public boolean removeMask(int index, int removed) {
+        int[] masks = candidates.getMasks();
+        int old = masks[index];
+        if ((old & removed) == 0) {
+            return false;
+        }
+        push(KIND_MASK, index, old);
+        masks[index] = old & ~removed;
+        return true;
+    }
+
+    /**
+     * Undo every change made after the given mark, most recent first.
+     *
+     * @param mark a value previously returned by {@link Trail#mark()}
+     */
+    public void undo(int mark) {
+        if (mark < 0 || mark > size) {
+            throw new IllegalArgumentException("Mark " + mark + " is not in the trail (size " + size + ")");
+        }
+        int[][] grid = sudoku.getGrid();
+        int[] masks = candidates != null ? candidates.getMasks() : null;
+        while (size > mark) {
+            int entry = entries[--size];
+            int index = (entry >>> INDEX_SHIFT) & INDEX_MASK;
+            int old = entry >>> OLD_SHIFT;
+            if ((entry & 1) == KIND_CELL) {
+                grid[Masks.x(index)][Masks.y(index)] = old;
+            } else {
+                masks[index] = old;
+            }
+        }
+    }
+
+    /**
+     * Forget every recorded change, keeping the Sudoku and candidates as they are now.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void push(int kind, int index, int old) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        entries[size++] = (old << OLD_SHIFT) | (index << INDEX_SHIFT) | kind;
+    }
+}
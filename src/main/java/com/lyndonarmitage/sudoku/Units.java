@@ -0,0 +1,57 @@
+package com.lyndonarmitage.sudoku;
+
+/**
+ * Precomputed lookup tables describing the rows, columns and boxes ("units") of a Sudoku in terms of
+ * {@link Masks#index(int, int) cell indexes}.<br />
+ * Units 0-8 are the rows, 9-17 the columns and 18-26 the boxes.<br />
+ * <b>Warning:</b> The tables are shared, they must not be modified.
+ */
+public final class Units {
+
+    public static final int UNIT_COUNT = Sudoku.GRID_SIZE * 3;
+    public static final int PEER_COUNT = 20;
+
+    /**
+     * The cells in each unit
+     */
+    public static final int[][] CELLS = new int[UNIT_COUNT][Sudoku.GRID_SIZE];
+    /**
+     * The row, column and box unit of each cell
+     */
+    public static final int[][] OF_CELL = new int[Masks.CELL_COUNT][3];
+    /**
+     * The cells that share a unit with each cell, not including the cell itself
+     */
+    public static final int[][] PEERS = new int[Masks.CELL_COUNT][PEER_COUNT];
+    public static final int[] ROW_OF = new int[Masks.CELL_COUNT];
+    public static final int[] COLUMN_OF = new int[Masks.CELL_COUNT];
+    public static final int[] BOX_OF = new int[Masks.CELL_COUNT];
+
+    static {
+        int[] filled = new int[UNIT_COUNT];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int x = Masks.x(i);
+            int y = Masks.y(i);
+            ROW_OF[i] = y;
+            COLUMN_OF[i] = x;
+            BOX_OF[i] = Masks.box(x, y);
+            OF_CELL[i][0] = y;
+            OF_CELL[i][1] = Sudoku.GRID_SIZE + x;
+            OF_CELL[i][2] = Sudoku.GRID_SIZE * 2 + BOX_OF[i];
+            for (int unit : OF_CELL[i]) {
+                CELLS[unit][filled[unit]++] = i;
+            }
+        }
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int count = 0;
+            for (int j = 0; j < Masks.CELL_COUNT; j++) {
+                if (i != j && (ROW_OF[i] == ROW_OF[j] || COLUMN_OF[i] == COLUMN_OF[j] || BOX_OF[i] == BOX_OF[j])) {
+                    PEERS[i][count++] = j;
+                }
+            }
+        }
+    }
+
+    private Units() {
+    }
+}
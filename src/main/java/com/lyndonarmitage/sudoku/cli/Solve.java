@@ -0,0 +1,119 @@
+package com.lyndonarmitage.sudoku.cli;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.format.CellParser;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless command line solver for a single Sudoku, meant for short lived jobs where JVM start up costs more than the
+ * solve, e.g.
+ * <pre>
+ * java -XX:SharedArchiveFile=target/sudoku.jsa -cp ... com.lyndonarmitage.sudoku.cli.Solve puzzle.txt
+ * </pre>
+ * The puzzle can be in the 9 line, single line or Project Euler format and the solution is written in the 9 line
+ * format. Unlike the solvers' own <code>main</code> methods this never touches AWT or Swing, and it only loads the
+ * classes it needs to solve: the puzzle is read straight into a cell array and solved with
+ * {@link BacktrackingSolver#solveCells(int[], SolveBudget)}, without a {@link com.lyndonarmitage.sudoku.Sudoku} or any
+ * logging being set up.<br />
+ * The exit status is 0 when solved, 1 when there is no solution or the time limit ran out and 2 when the puzzle can't
+ * be read or the time limit isn't a number.<br />
+ * Build with <code>mvn -P appcds package</code> to also create a class data sharing archive of the classes loaded by a
+ * solve, which cuts start up time further.
+ */
+public final class Solve {
+
+    private Solve() {
+    }
+
+    /**
+     * Main entry point for the command line
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the optional file to read the puzzle from, "-" or none reads stdin</li>
+     *             <li>arg[1] is the optional time limit in milliseconds, defaults to no limit</li>
+     *             </ul>
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    /**
+     * Solve one puzzle, as {@link Solve#main(String[])} does but returning the exit status
+     *
+     * @param args the command line arguments
+     * @param in   read from when no file is given
+     * @param out  the solution is written here
+     * @param err  problems are reported here
+     * @return the exit status
+     */
+    public static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+        int[] cells = new int[Masks.CELL_COUNT];
+        try {
+            byte[] data = args.length > 0 && !"-".equals(args[0])
+                    ? Files.readAllBytes(Paths.get(args[0]))
+                    : readAll(in);
+            int filled = CellParser.read(data, data.length, cells, Masks.CELL_COUNT);
+            if (filled < Masks.CELL_COUNT) {
+                throw new IllegalArgumentException("only " + filled + " of " + Masks.CELL_COUNT + " cells");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            err.println("Couldn't read puzzle: " + e.getMessage());
+            return 2;
+        }
+        SolveBudget budget;
+        try {
+            budget = args.length > 1
+                    ? SolveBudget.timeout(Long.parseLong(args[1]), TimeUnit.MILLISECONDS)
+                    : SolveBudget.UNLIMITED;
+        } catch (IllegalArgumentException e) {
+            err.println("Bad time limit: " + e.getMessage());
+            return 2;
+        }
+        SolveStatus status = new BacktrackingSolver().solveCells(cells, budget);
+        if (status != SolveStatus.SOLVED) {
+            err.println(status == SolveStatus.UNSOLVABLE ? "No solution" : "Ran out of time");
+            return 1;
+        }
+        out.print(format(cells));
+        out.flush();
+        return 0;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        byte[] buffer = new byte[256];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+            if (length == buffer.length) {
+                byte[] bigger = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, bigger, 0, length);
+                buffer = bigger;
+            }
+        }
+        byte[] data = new byte[length];
+        System.arraycopy(buffer, 0, data, 0, length);
+        return data;
+    }
+
+    private static String format(int[] cells) {
+        char[] text = new char[Masks.CELL_COUNT + 9];
+        int at = 0;
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            text[at++] = (char) ('0' + cells[i]);
+            if (i % 9 == 8) {
+                text[at++] = '\n';
+            }
+        }
+        return new String(text);
+    }
+}
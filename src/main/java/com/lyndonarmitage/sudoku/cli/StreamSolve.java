@@ -0,0 +1,195 @@
+package com.lyndonarmitage.sudoku.cli;
+
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import com.lyndonarmitage.sudoku.solvers.LineSolver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unix style command line solver, reads Sudokus in the single line format from stdin and writes one
+ * {@link LineSolver} answer per line to stdout, in the same order, e.g.
+ * <pre>
+ * xz -d &lt; puzzles.txt.xz | java -cp ... com.lyndonarmitage.sudoku.cli.StreamSolve | ...
+ * </pre>
+ * Lines are read in chunks by a reader thread, solved in parallel by a pool of worker threads and written back in
+ * order by the calling thread. The stages are joined by bounded queues and only a fixed number of chunks can be in
+ * flight at once, so memory use stays the same however big the input is.
+ */
+public class StreamSolve {
+
+    private static final int CHUNK_SIZE = 256;
+
+    private final int workerCount;
+    private final SolveBudget budget;
+    private final BlockingQueue<Chunk> toSolve;
+    private final Semaphore inFlight;
+    private final Map<Long, Chunk> solved = new HashMap<>();
+    private boolean readerDone;
+    private long chunkCount;
+    private IOException readError;
+
+    /**
+     * @param workerCount The number of solving threads
+     * @param budget      The budget to give each Sudoku
+     */
+    public StreamSolve(int workerCount, SolveBudget budget) {
+        this.workerCount = workerCount;
+        this.budget = budget;
+        this.toSolve = new ArrayBlockingQueue<>(workerCount * 2);
+        // chunks waiting to be solved, being solved and waiting to be written in order
+        this.inFlight = new Semaphore(workerCount * 4);
+    }
+
+    /**
+     * Main entry point for the command line
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the optional number of worker threads, defaults to the number of processors</li>
+     *             <li>arg[1] is the optional time budget per puzzle in milliseconds, defaults to no limit</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int workerCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        SolveBudget budget = args.length > 1
+                ? SolveBudget.timeout(Long.parseLong(args[1]), TimeUnit.MILLISECONDS)
+                : SolveBudget.UNLIMITED;
+        new StreamSolve(workerCount, budget).run(System.in, System.out);
+    }
+
+    /**
+     * Solve every line of the input, writing the answers to the output. The streams are not closed.
+     *
+     * @param in  The Sudokus, one per line
+     * @param out Where to write the answers
+     * @return The number of lines solved
+     * @throws IOException if the input couldn't be read or the output written
+     */
+    public long run(InputStream in, OutputStream out) throws IOException, InterruptedException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.US_ASCII);
+        Thread readerThread = new Thread(() -> read(new BufferedReader(reader, 1 << 16)), "stream-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        Thread[] workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::work, "stream-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16);
+        long lines = 0;
+        Chunk chunk;
+        for (long next = 0; (chunk = awaitSolved(next)) != null; next++) {
+            for (int i = 0; i < chunk.size; i++) {
+                writer.write(chunk.lines[i]);
+                writer.write('\n');
+            }
+            lines += chunk.size;
+            inFlight.release();
+        }
+        writer.flush();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        synchronized (this) {
+            if (readError != null) {
+                throw readError;
+            }
+        }
+        return lines;
+    }
+
+    private void read(BufferedReader reader) {
+        long sequence = 0;
+        try {
+            Chunk chunk = new Chunk(sequence);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                chunk.lines[chunk.size++] = line;
+                if (chunk.size == CHUNK_SIZE) {
+                    inFlight.acquire();
+                    toSolve.put(chunk);
+                    chunk = new Chunk(++sequence);
+                }
+            }
+            if (chunk.size > 0) {
+                inFlight.acquire();
+                toSolve.put(chunk);
+                sequence++;
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                readError = e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                chunkCount = sequence;
+                readerDone = true;
+                notifyAll();
+            }
+        }
+    }
+
+    private void work() {
+        LineSolver solver = new LineSolver(new BacktrackingSolver(), budget);
+        try {
+            while (true) {
+                Chunk chunk = toSolve.take();
+                for (int i = 0; i < chunk.size; i++) {
+                    try {
+                        chunk.lines[i] = solver.solve(chunk.lines[i]);
+                    } catch (RuntimeException e) {
+                        chunk.lines[i] = "ERROR " + e;
+                    }
+                }
+                synchronized (this) {
+                    solved.put(chunk.sequence, chunk);
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            // finished
+        }
+    }
+
+    private synchronized Chunk awaitSolved(long sequence) throws InterruptedException {
+        while (!solved.containsKey(sequence)) {
+            if (readerDone && sequence >= chunkCount) {
+                return null;
+            }
+            wait();
+        }
+        return solved.remove(sequence);
+    }
+
+    private static final class Chunk {
+        private final long sequence;
+        private final String[] lines = new String[CHUNK_SIZE];
+        private int size;
+
+        private Chunk(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.lyndonarmitage.sudoku.dedup;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+
+/**
+ * Rewrites Sudokus into a canonical form so that copies which only differ by a symmetry of the grid come out the
+ * same.<br />
+ * The symmetries covered are transposition, reordering the bands (and stacks) and the rows within each band (and
+ * columns within each stack), and relabelling the values. The canonical form is the arrangement with the smallest
+ * pattern of filled in cells (read row by row), and where several arrangements share that pattern, the one with the
+ * smallest values once they are relabelled in order of first appearance.<br />
+ * For any choice of rows the columns giving the smallest pattern are found by sorting them, and the pattern of the
+ * first few rows only depends on which rows were chosen for them, so the rows are chosen one at a time and any partial
+ * arrangement already worse than the best is abandoned straight away. Typical puzzles only explore a handful of
+ * arrangements, but puzzles with very few clues have lots of ties so take much longer.<br />
+ * Instances reuse their working arrays so are not thread safe.
+ */
+public class CanonicalForm {
+
+    private static final int N = Sudoku.GRID_SIZE;
+    private static final int BOX = Sudoku.BOX_SIZE;
+    private static final int[][] PERMUTATIONS_3 = {
+            {0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}
+    };
+
+    // spreads the 9 bits of a column value out to every third bit
+    private static final int[] SPREAD = new int[1 << N];
+
+    static {
+        for (int value = 0; value < SPREAD.length; value++) {
+            for (int bit = 0; bit < N; bit++) {
+                SPREAD[value] |= ((value >>> bit) & 1) << (bit * 3);
+            }
+        }
+    }
+
+    private final int[] original = new int[Masks.CELL_COUNT];
+    private final int[] source = new int[Masks.CELL_COUNT];
+    private final int[] rowMasks = new int[N];
+    private final int[] rowOrder = new int[N];
+    // the column values (one bit per chosen row, first row highest) at each depth of the search
+    private final int[][] prefixes = new int[N + 1][N];
+    private final int[] columnOrder = new int[N];
+    private final int[] columnPermuted = new int[N];
+    private final int[] stackKeys = new int[BOX];
+    private final int[] stackOrder = new int[BOX];
+    private final int[] bestRows = new int[N];
+    private final int[] candidate = new int[Masks.CELL_COUNT];
+    private final int[] labels = new int[N + 1];
+    private boolean haveBest;
+    private int[] out;
+
+    /**
+     * Work out the canonical form of a puzzle
+     *
+     * @param cells {@link Masks#CELL_COUNT} values between 0-9 indexed by {@link Masks#index(int, int)}
+     * @param out   where to write the canonical form, may be the same array as the cells
+     */
+    public void canonicalize(int[] cells, int[] out) {
+        System.arraycopy(cells, 0, original, 0, Masks.CELL_COUNT);
+        this.out = out;
+        haveBest = false;
+        for (int i = 0; i < N; i++) {
+            bestRows[i] = Integer.MAX_VALUE;
+        }
+        for (int transpose = 0; transpose < 2; transpose++) {
+            for (int i = 0; i < Masks.CELL_COUNT; i++) {
+                source[i] = transpose == 0 ? original[i] : original[Masks.index(Masks.y(i), Masks.x(i))];
+            }
+            for (int row = 0; row < N; row++) {
+                int mask = 0;
+                for (int column = 0; column < N; column++) {
+                    if (source[row * N + column] != 0) {
+                        mask |= 1 << column;
+                    }
+                }
+                rowMasks[row] = mask;
+            }
+            chooseRow(0, 0);
+        }
+        this.out = null;
+    }
+
+    /**
+     * Work out a 64 bit fingerprint of the canonical form of a puzzle
+     *
+     * @param cells {@link Masks#CELL_COUNT} values between 0-9 indexed by {@link Masks#index(int, int)}, these are
+     *              overwritten with the canonical form
+     * @return the fingerprint
+     */
+    public long fingerprint(int[] cells) {
+        canonicalize(cells, cells);
+        long hash = 0x9E3779B97F4A7C15L;
+        long word = 0;
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            word = (word << 4) | cells[i];
+            if (i % 16 == 15 || i == Masks.CELL_COUNT - 1) {
+                hash = mix(hash ^ word) + i;
+                word = 0;
+            }
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreads every input bit over the whole output
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Chooses the row for the given position, then carries on to the next position if the pattern so far is no worse
+     * than the best
+     *
+     * @param position  the position being filled (0-8)
+     * @param usedBands a bit set of the bands already placed
+     */
+    private void chooseRow(int position, int usedBands) {
+        if (position == N) {
+            finishArrangement();
+            return;
+        }
+        int offset = position % BOX;
+        int firstBand;
+        int lastBand;
+        if (offset == 0) {
+            firstBand = 0;
+            lastBand = BOX - 1;
+        } else {
+            // carry on with the band the first row of this band position came from
+            firstBand = rowOrder[position - offset] / BOX;
+            lastBand = firstBand;
+        }
+        for (int band = firstBand; band <= lastBand; band++) {
+            if (offset == 0 && (usedBands & (1 << band)) != 0) {
+                continue;
+            }
+            for (int within = 0; within < BOX; within++) {
+                int row = band * BOX + within;
+                if (isUsed(row, position)) {
+                    continue;
+                }
+                rowOrder[position] = row;
+                int[] before = prefixes[position];
+                int[] after = prefixes[position + 1];
+                int bit = 1 << (N - 1 - position);
+                int mask = rowMasks[row];
+                for (int column = 0; column < N; column++) {
+                    after[column] = before[column] | ((mask >>> column) & 1) * bit;
+                }
+                sortColumns(after);
+                int pattern = rowPattern(position);
+                if (pattern > bestRows[position]) {
+                    continue;
+                }
+                if (pattern < bestRows[position]) {
+                    // a better arrangement, everything after this row needs beating again
+                    bestRows[position] = pattern;
+                    for (int later = position + 1; later < N; later++) {
+                        bestRows[later] = Integer.MAX_VALUE;
+                    }
+                    haveBest = false;
+                }
+                chooseRow(position + 1, usedBands | (1 << band));
+            }
+        }
+    }
+
+    private boolean isUsed(int row, int position) {
+        for (int i = 0; i < position; i++) {
+            if (rowOrder[i] == row) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sorts the columns within each stack, then the stacks, by their values so far
+     */
+    private void sortColumns(int[] values) {
+        for (int stack = 0; stack < BOX; stack++) {
+            int base = stack * BOX;
+            int a = base;
+            int b = base + 1;
+            int c = base + 2;
+            int swap;
+            if (values[b] < values[a]) {
+                swap = a;
+                a = b;
+                b = swap;
+            }
+            if (values[c] < values[b]) {
+                swap = b;
+                b = c;
+                c = swap;
+                if (values[b] < values[a]) {
+                    swap = a;
+                    a = b;
+                    b = swap;
+                }
+            }
+            columnOrder[base] = a;
+            columnOrder[base + 1] = b;
+            columnOrder[base + 2] = c;
+            // interleave the three columns so the key compares row by row
+            stackKeys[stack] = SPREAD[values[a]] << 2 | SPREAD[values[b]] << 1 | SPREAD[values[c]];
+            stackOrder[stack] = stack;
+        }
+        for (int i = 1; i < BOX; i++) {
+            int stack = stackOrder[i];
+            int j = i - 1;
+            while (j >= 0 && stackKeys[stackOrder[j]] > stackKeys[stack]) {
+                stackOrder[j + 1] = stackOrder[j];
+                j--;
+            }
+            stackOrder[j + 1] = stack;
+        }
+    }
+
+    /**
+     * @return the 9 bit pattern of the row at the given position with the columns in sorted order
+     */
+    private int rowPattern(int position) {
+        int shift = 3 * (N - 1 - position);
+        return ((stackKeys[stackOrder[0]] >>> shift) & 7) << 6 | ((stackKeys[stackOrder[1]] >>> shift) & 7) << 3
+                | ((stackKeys[stackOrder[2]] >>> shift) & 7);
+    }
+
+    /**
+     * Every row has been placed with a pattern equal to the best. Columns (or whole stacks) with identical patterns can
+     * be swapped without changing the pattern, so try each such swap and keep whichever gives the smallest values.
+     */
+    private void finishArrangement() {
+        sortColumns(prefixes[N]);
+        int[] values = prefixes[N];
+        for (int[] stacks : PERMUTATIONS_3) {
+            if (!sameStacks(stacks)) {
+                continue;
+            }
+            for (int[] first : PERMUTATIONS_3) {
+                if (!sameColumns(values, 0, first)) {
+                    continue;
+                }
+                for (int[] second : PERMUTATIONS_3) {
+                    if (!sameColumns(values, 1, second)) {
+                        continue;
+                    }
+                    for (int[] third : PERMUTATIONS_3) {
+                        if (!sameColumns(values, 2, third)) {
+                            continue;
+                        }
+                        buildCandidate(stacks, first, second, third);
+                        if (!haveBest || compare(candidate, out) < 0) {
+                            haveBest = true;
+                            System.arraycopy(candidate, 0, out, 0, Masks.CELL_COUNT);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean sameColumns(int[] values, int stack, int[] permutation) {
+        int base = stack * BOX;
+        for (int i = 0; i < BOX; i++) {
+            if (values[columnOrder[base + permutation[i]]] != values[columnOrder[base + i]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameStacks(int[] permutation) {
+        for (int i = 0; i < BOX; i++) {
+            if (stackKeys[stackOrder[permutation[i]]] != stackKeys[stackOrder[i]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the current row order and the column order (with the given tie permutations applied) into the candidate
+     * array, relabelling the values by first appearance. The column permutations belong to the stacks as they are in
+     * the source, which may not be the order the stacks are written in.
+     */
+    private void buildCandidate(int[] stacks, int[] first, int[] second, int[] third) {
+        for (int q = 0; q < N; q++) {
+            int stack = stackOrder[stacks[q / BOX]];
+            int[] within = stack == 0 ? first : stack == 1 ? second : third;
+            columnPermuted[q] = columnOrder[stack * BOX + within[q % BOX]];
+        }
+        for (int i = 0; i <= N; i++) {
+            labels[i] = 0;
+        }
+        int nextLabel = 1;
+        for (int position = 0; position < N; position++) {
+            int row = rowOrder[position] * N;
+            for (int q = 0; q < N; q++) {
+                int value = source[row + columnPermuted[q]];
+                if (value != 0) {
+                    if (labels[value] == 0) {
+                        labels[value] = nextLabel++;
+                    }
+                    value = labels[value];
+                }
+                candidate[position * N + q] = value;
+            }
+        }
+    }
+
+    private static int compare(int[] a, int[] b) {
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            if (a[i] != b[i]) {
+                return a[i] < b[i] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.lyndonarmitage.sudoku.dedup;
+
+import com.lyndonarmitage.sudoku.Masks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams Sudokus in the single line format through, writing out only the first of each set of puzzles that share a
+ * {@link CanonicalForm}, so duplicates and isomorphic copies are dropped.<br />
+ * Only a 64 bit fingerprint of each canonical form is kept, in a {@link LongHashSet}, so memory use is fixed by the
+ * expected number of unique puzzles rather than the size of the input. With 64 bit fingerprints the chance of two
+ * different puzzles colliding across a hundred million uniques is around one in three thousand.
+ */
+public class Deduplicate {
+
+    private final CanonicalForm canonicalForm = new CanonicalForm();
+    private final int[] cells = new int[Masks.CELL_COUNT];
+    private final LongHashSet seen;
+    private long read;
+    private long unique;
+    private long invalid;
+
+    /**
+     * @param expectedUnique the most unique puzzles expected
+     * @param offHeap        whether to keep the seen set in direct memory rather than on the heap
+     */
+    public Deduplicate(long expectedUnique, boolean offHeap) {
+        this.seen = new LongHashSet(expectedUnique, offHeap);
+    }
+
+    /**
+     * Main entry point for the deduplicator, reads from stdin and writes to stdout
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the optional most unique puzzles expected, defaults to 10,000,000</li>
+     *             <li>arg[1] is the optional "offheap" to keep the seen set out of the Java heap</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException {
+        long expected = args.length > 0 ? Long.parseLong(args[0]) : 10000000L;
+        boolean offHeap = args.length > 1 && "offheap".equalsIgnoreCase(args[1]);
+        Deduplicate deduplicate = new Deduplicate(expected, offHeap);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII), 1 << 16);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16);
+        deduplicate.process(in, out);
+        out.flush();
+        System.err.println("Read " + deduplicate.getRead() + ", unique " + deduplicate.getUnique()
+                + ", invalid " + deduplicate.getInvalid());
+    }
+
+    /**
+     * Copy each puzzle not seen before from the input to the output. Lines that aren't valid puzzles are skipped.
+     *
+     * @param in  Sudokus in the single line format, one per line
+     * @param out where to write the unique Sudokus
+     * @throws IOException if reading or writing fails
+     */
+    public void process(BufferedReader in, Writer out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (add(line)) {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Record a puzzle as seen, counting it towards {@link #getRead()} and either {@link #getUnique()} or
+     * {@link #getInvalid()}
+     *
+     * @param line a Sudoku in the single line format
+     * @return true if the line was a new puzzle
+     */
+    public boolean add(String line) {
+        read++;
+        if (!parse(line)) {
+            invalid++;
+            return false;
+        }
+        if (seen.add(canonicalForm.fingerprint(cells))) {
+            unique++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of puzzles read so far, including invalid ones
+     */
+    public long getRead() {
+        return read;
+    }
+
+    /**
+     * @return the number of puzzles read so far that weren't duplicates of an earlier one
+     */
+    public long getUnique() {
+        return unique;
+    }
+
+    /**
+     * @return the number of lines read so far that weren't valid puzzles
+     */
+    public long getInvalid() {
+        return invalid;
+    }
+
+    private boolean parse(String line) {
+        if (line.length() != Masks.CELL_COUNT) {
+            return false;
+        }
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                cells[i] = c - '0';
+            } else if (c == '.') {
+                cells[i] = 0;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+}
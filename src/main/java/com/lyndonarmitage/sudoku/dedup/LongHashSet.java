@@ -0,0 +1,116 @@
+package com.lyndonarmitage.sudoku.dedup;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A fixed capacity set of longs using open addressing with linear probing.<br />
+ * Keys are stored in a flat table of primitive longs, either on the heap or in direct (off heap) memory, so the set
+ * holds hundreds of millions of keys without any per key objects and without growing the Java heap. The table is
+ * split into segments as a single buffer can't hold more than 2<sup>31</sup> bytes. The capacity is fixed when the set
+ * is created, adding beyond it throws an {@link IllegalStateException}.<br />
+ * Not thread safe.
+ */
+public class LongHashSet {
+
+    // 2^27 longs is 1GB, the largest power of two that fits in a single buffer
+    private static final int SEGMENT_BITS = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+    // 0 marks an empty slot, so the key 0 is stored as this instead
+    private static final long ZERO_KEY = 0x8000000000000000L;
+    private static final double MAX_LOAD = 0.75;
+
+    private final LongBuffer[] segments;
+    private final long mask;
+    private final long maxSize;
+    private long size;
+
+    /**
+     * Create a set with room for at least the given number of keys
+     *
+     * @param expected the number of keys expected
+     * @param offHeap  whether to keep the table in direct memory rather than on the heap
+     */
+    public LongHashSet(long expected, boolean offHeap) {
+        long slots = Long.highestOneBit(Math.max(16, (long) (expected / MAX_LOAD)) * 2 - 1);
+        this.mask = slots - 1;
+        this.maxSize = (long) (slots * MAX_LOAD);
+        int segmentCount = (int) Math.max(1, slots >>> SEGMENT_BITS);
+        int segmentSlots = (int) Math.min(slots, 1L << SEGMENT_BITS);
+        this.segments = new LongBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = offHeap
+                    ? ByteBuffer.allocateDirect(segmentSlots * 8).asLongBuffer()
+                    : LongBuffer.allocate(segmentSlots);
+        }
+    }
+
+    /**
+     * Add a key to the set
+     *
+     * @param key the key
+     * @return true if the key wasn't already in the set
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            key = ZERO_KEY;
+        }
+        long slot = spread(key) & mask;
+        while (true) {
+            LongBuffer segment = segments[(int) (slot >>> SEGMENT_BITS)];
+            int index = (int) (slot & SEGMENT_MASK);
+            long existing = segment.get(index);
+            if (existing == key) {
+                return false;
+            }
+            if (existing == 0) {
+                if (size >= maxSize) {
+                    throw new IllegalStateException("Set is full, it was created for at most " + maxSize + " keys");
+                }
+                segment.put(index, key);
+                size++;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return true if the key is in the set
+     */
+    public boolean contains(long key) {
+        if (key == 0) {
+            key = ZERO_KEY;
+        }
+        long slot = spread(key) & mask;
+        while (true) {
+            long existing = segments[(int) (slot >>> SEGMENT_BITS)].get((int) (slot & SEGMENT_MASK));
+            if (existing == key) {
+                return true;
+            }
+            if (existing == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return the number of keys in the set
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of keys the set can hold
+     */
+    public long capacity() {
+        return maxSize;
+    }
+
+    private static long spread(long key) {
+        return CanonicalForm.mix(key);
+    }
+}
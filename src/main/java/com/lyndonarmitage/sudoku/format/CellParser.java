@@ -0,0 +1,50 @@
+package com.lyndonarmitage.sudoku.format;
+
+/**
+ * Reads the cells of puzzles held as text in memory, in any of the text formats of {@link PuzzleFormat} and with any
+ * number of puzzles one after another.<br />
+ * Whitespace is ignored, as are lines starting with "Grid", '.' and '0' are empty cells and '1'-'9' are values. Nothing
+ * is allocated and no logging is set up, so this suits both loading lots of files and short lived command line runs.
+ */
+public final class CellParser {
+
+    private CellParser() {
+    }
+
+    /**
+     * Read cells from the start of some text
+     *
+     * @param data   the text
+     * @param length how many bytes of the text to read
+     * @param cells  where to write the cells, one after another
+     * @param max    the most cells to read, anything after them is ignored
+     * @return the number of cells read
+     * @throws IllegalArgumentException if any other character comes before the last cell
+     */
+    public static int read(byte[] data, int length, int[] cells, int max) {
+        int filled = 0;
+        boolean lineStart = true;
+        for (int i = 0; i < length && filled < max; i++) {
+            byte b = data[i];
+            if (lineStart && b == 'G') {
+                // a Project Euler "Grid NN" header
+                while (i < length && data[i] != '\n') {
+                    i++;
+                }
+                continue;
+            }
+            lineStart = b == '\n';
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                continue;
+            }
+            if (b == '.') {
+                cells[filled++] = 0;
+            } else if (b >= '0' && b <= '9') {
+                cells[filled++] = b - '0';
+            } else {
+                throw new IllegalArgumentException("unexpected character '" + (char) b + "'");
+            }
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,264 @@
+package com.lyndonarmitage.sudoku.format;
+
+import com.lyndonarmitage.sudoku.Masks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Loads puzzles from a directory tree of files or from a zip archive, reading many files at once.<br />
+ * The files are listed with {@link Files#walk(Path, java.nio.file.FileVisitOption...)} (or from the zip's central
+ * directory) and then shared out between worker threads. Each worker reads whole files into its own reused buffer and
+ * parses them into its own cell array, so nothing is allocated per file beyond its name.<br />
+ * A file may hold one or more puzzles in the 9 line, single line or Project Euler formats (see {@link PuzzleFormat});
+ * whitespace is ignored, as are lines starting with "Grid", and every 81 cells make a puzzle. Files that can't be read
+ * or parsed are logged, counted once and skipped whole, even if they start with good puzzles.
+ */
+public class CorpusLoader {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusLoader.class);
+
+    private static final int INITIAL_BUFFER = 4096;
+
+    /**
+     * Receives each puzzle as it is loaded. Called from several threads at once.
+     */
+    public interface Visitor {
+        /**
+         * @param name  the name of the file (relative to the directory or zip) the puzzle came from, with "#n" added
+         *              for the n-th puzzle after the first in a file
+         * @param cells {@link Masks#CELL_COUNT} values 0-9 indexed by {@link Masks#index(int, int)}, only valid until
+         *              this method returns
+         */
+        void puzzle(String name, int[] cells);
+    }
+
+    private final int threads;
+    private final AtomicLong malformed = new AtomicLong();
+
+    /**
+     * @param threads how many files to read at once
+     */
+    public CorpusLoader(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Load every puzzle from the files in a directory tree or entries in a zip archive whose names match a pattern
+     *
+     * @param source  a directory, or a file ending in ".zip"
+     * @param pattern a regular expression file names must match, or null to load every file
+     * @param visitor receives each puzzle
+     * @return the number of puzzles loaded
+     * @throws IOException if the directory or zip can't be listed
+     */
+    public long load(Path source, String pattern, Visitor visitor) throws IOException {
+        return load(source, pattern, null, visitor);
+    }
+
+    /**
+     * Load every puzzle from the files in a directory tree or entries in a zip archive whose names match a pattern and
+     * are accepted by a filter, for example to take one shard of a corpus split between machines.<br />
+     * Files are filtered before they are read so rejected files cost nothing beyond being listed.
+     *
+     * @param source  a directory, or a file ending in ".zip"
+     * @param pattern a regular expression file names must match, or null to load every file
+     * @param accept  tested with the name each puzzle would be given (without any "#n"), or null to accept them all
+     * @param visitor receives each puzzle
+     * @return the number of puzzles loaded
+     * @throws IOException if the directory or zip can't be listed
+     */
+    public long load(Path source, String pattern, Predicate<String> accept, Visitor visitor) throws IOException {
+        malformed.set(0);
+        Pattern matcher = pattern == null ? null : Pattern.compile(pattern);
+        if (Files.isRegularFile(source) && source.getFileName().toString().toLowerCase().endsWith(".zip")) {
+            try (ZipFile zip = new ZipFile(source.toFile())) {
+                List<ZipEntry> entries = new ArrayList<>();
+                Enumeration<? extends ZipEntry> all = zip.entries();
+                while (all.hasMoreElements()) {
+                    ZipEntry entry = all.nextElement();
+                    if (!entry.isDirectory() && matches(matcher, baseName(entry.getName()))
+                            && (accept == null || accept.test(entry.getName()))) {
+                        entries.add(entry);
+                    }
+                }
+                return run(entries.size(), (index, worker) -> {
+                    ZipEntry entry = entries.get(index);
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        worker.read(in);
+                    }
+                    return entry.getName();
+                }, visitor);
+            }
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(path -> matches(matcher, path.getFileName().toString()))
+                    .filter(path -> accept == null || accept.test(source.relativize(path).toString()))
+                    .collect(Collectors.toList());
+        }
+        return run(files.size(), (index, worker) -> {
+            Path file = files.get(index);
+            worker.read(file);
+            return source.relativize(file).toString();
+        }, visitor);
+    }
+
+    /**
+     * @return the number of files that couldn't be read or parsed in the last load
+     */
+    public long getMalformed() {
+        return malformed.get();
+    }
+
+    private static boolean matches(Pattern pattern, String name) {
+        return pattern == null || pattern.matcher(name).matches();
+    }
+
+    private static String baseName(String entryName) {
+        return entryName.substring(entryName.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Reads one file (by index) into the worker's buffer
+     */
+    private interface Source {
+        String read(int index, Worker worker) throws IOException;
+    }
+
+    private long run(int fileCount, Source source, Visitor visitor) throws IOException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong puzzles = new AtomicLong();
+        int workerCount = Math.min(threads, Math.max(1, fileCount));
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "corpus-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(workerCount);
+            for (int w = 0; w < workerCount; w++) {
+                futures.add(executor.submit(() -> {
+                    Worker worker = new Worker();
+                    int index;
+                    while ((index = next.getAndIncrement()) < fileCount) {
+                        String name = null;
+                        try {
+                            name = source.read(index, worker);
+                            puzzles.addAndGet(worker.parse(name, visitor));
+                        } catch (IOException | IllegalArgumentException e) {
+                            malformed.incrementAndGet();
+                            logger.warn("Skipping {}: {}", name == null ? "file " + index : name, e.getMessage());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            throw new IOException("Failed loading puzzles", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return puzzles.get();
+    }
+
+    /**
+     * The reused buffers of one loading thread
+     */
+    private static final class Worker {
+        private byte[] bytes = new byte[INITIAL_BUFFER];
+        private int length;
+        private int[] parsed = new int[INITIAL_BUFFER];
+        private final int[] cells = new int[Masks.CELL_COUNT];
+
+        void read(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("File too large: " + size + " bytes");
+                }
+                ensure((int) size);
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, (int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the whole file is in the buffer
+                }
+                length = buffer.position();
+            }
+        }
+
+        void read(InputStream in) throws IOException {
+            length = 0;
+            int read;
+            while (true) {
+                if (length == bytes.length) {
+                    ensure(bytes.length * 2);
+                }
+                read = in.read(bytes, length, bytes.length - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+        }
+
+        private void ensure(int size) {
+            if (bytes.length < size) {
+                byte[] bigger = new byte[Math.max(size, bytes.length * 2)];
+                System.arraycopy(bytes, 0, bigger, 0, length);
+                bytes = bigger;
+            }
+        }
+
+        /**
+         * Parse the whole buffer before handing any puzzles on, so a file that turns out to be malformed part way
+         * through gives the visitor nothing
+         *
+         * @return the number of puzzles found in the buffer
+         */
+        int parse(String name, Visitor visitor) {
+            if (parsed.length < length) {
+                // a file can't hold more cells than bytes
+                parsed = new int[Math.max(length, parsed.length * 2)];
+            }
+            int filled = CellParser.read(bytes, length, parsed, parsed.length);
+            if (filled % Masks.CELL_COUNT != 0) {
+                throw new IllegalArgumentException("incomplete puzzle of " + filled % Masks.CELL_COUNT + " cells");
+            }
+            int found = filled / Masks.CELL_COUNT;
+            for (int puzzle = 0; puzzle < found; puzzle++) {
+                System.arraycopy(parsed, puzzle * Masks.CELL_COUNT, cells, 0, Masks.CELL_COUNT);
+                visitor.puzzle(puzzle == 0 ? name : name + "#" + puzzle, cells);
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.lyndonarmitage.sudoku.format;
+
+import com.lyndonarmitage.sudoku.Masks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Converts a stream of puzzles from one {@link PuzzleFormat} to another, one puzzle at a time.<br />
+ * This replaces splitting a Project Euler file into a file per puzzle: converting it to the line or binary format
+ * gives a single file that can be read in one pass, for example:
+ * <pre>
+ * java com.lyndonarmitage.sudoku.format.FormatConverter euler line sudoku.txt puzzles.txt
+ * </pre>
+ */
+public class FormatConverter {
+    private static final Logger logger = LoggerFactory.getLogger(FormatConverter.class);
+
+    /**
+     * Copy every puzzle from the reader to the writer
+     *
+     * @param in  the puzzles to read
+     * @param out where to write them
+     * @return the number of puzzles converted
+     * @throws IOException if reading or writing fails, or the input holds a malformed puzzle
+     */
+    public static long convert(PuzzleReader in, PuzzleWriter out) throws IOException {
+        int[] cells = new int[Masks.CELL_COUNT];
+        long count = 0;
+        while (in.next(cells)) {
+            out.write(cells);
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Main entry point for tool
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the format to read: "euler", "grid", "line" or "binary"</li>
+     *             <li>arg[1] is the format to write</li>
+     *             <li>arg[2] is the optional file to read, defaults to standard in</li>
+     *             <li>arg[3] is the optional file to write, defaults to standard out</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Arguments should be the input and output formats (euler, grid, line or binary)");
+            System.exit(-1);
+        }
+        PuzzleFormat from = PuzzleFormat.of(args[0]);
+        PuzzleFormat to = PuzzleFormat.of(args[1]);
+        InputStream in = args.length > 2 ? Files.newInputStream(Paths.get(args[2])) : System.in;
+        OutputStream out = args.length > 3 ? Files.newOutputStream(Paths.get(args[3])) : System.out;
+        long start = System.nanoTime();
+        try (PuzzleReader reader = new PuzzleReader(in, from); PuzzleWriter writer = new PuzzleWriter(out, to)) {
+            long count = convert(reader, writer);
+            logger.info("Converted {} puzzles from {} to {} in {}ms", count, from, to,
+                    (System.nanoTime() - start) / 1000000);
+        }
+    }
+}
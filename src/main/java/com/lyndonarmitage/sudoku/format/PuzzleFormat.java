@@ -0,0 +1,36 @@
+package com.lyndonarmitage.sudoku.format;
+
+/**
+ * The file formats puzzles can be read from and written to by {@link PuzzleReader} and {@link PuzzleWriter}.
+ * Empty cells are written as 0 in the text formats, and read from either 0 or '.'.
+ */
+public enum PuzzleFormat {
+    /**
+     * The Project Euler format: a "Grid NN" line followed by 9 lines of 9 digits for each puzzle.
+     * See <a href='https://projecteuler.net/problem=96'>https://projecteuler.net/problem=96</a>
+     */
+    EULER,
+    /**
+     * 9 lines of 9 digits for each puzzle, as read by {@link com.lyndonarmitage.sudoku.Sudoku#parseString(String)},
+     * with puzzles separated by a blank line
+     */
+    GRID,
+    /**
+     * One puzzle per line as 81 characters, as read by
+     * {@link com.lyndonarmitage.sudoku.Sudoku#parseLine(CharSequence)}
+     */
+    LINE,
+    /**
+     * {@value PuzzleWriter#BINARY_RECORD_SIZE} bytes per puzzle holding one cell per 4 bits, high bits first
+     */
+    BINARY;
+
+    /**
+     * @param name the name of a format, in any case
+     * @return the format
+     * @throws IllegalArgumentException if there is no format with that name
+     */
+    public static PuzzleFormat of(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
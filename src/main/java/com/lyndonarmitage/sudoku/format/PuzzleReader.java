@@ -0,0 +1,189 @@
+package com.lyndonarmitage.sudoku.format;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads puzzles one at a time from a stream in any {@link PuzzleFormat}.<br />
+ * Only the puzzle being read is held in memory, and each one is decoded straight into a caller supplied array, so a
+ * file of any size can be streamed through. Blank lines between puzzles are skipped in the text formats.
+ */
+public class PuzzleReader implements Closeable {
+
+    private final PuzzleFormat format;
+    private final BufferedReader text;
+    private final InputStream binary;
+    private final byte[] record = new byte[PuzzleWriter.BINARY_RECORD_SIZE];
+    private long lineNumber;
+    private long count;
+
+    /**
+     * @param in     the stream to read, closed when this reader is closed
+     * @param format the format of the stream
+     */
+    public PuzzleReader(InputStream in, PuzzleFormat format) {
+        this.format = format;
+        if (format == PuzzleFormat.BINARY) {
+            this.binary = new BufferedInputStream(in);
+            this.text = null;
+        } else {
+            this.text = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            this.binary = null;
+        }
+    }
+
+    /**
+     * Read the next puzzle
+     *
+     * @param cells {@link Masks#CELL_COUNT} cells to fill with values 0-9, indexed by {@link Masks#index(int, int)}
+     * @return false if there are no more puzzles
+     * @throws IOException if the stream can't be read or holds a malformed puzzle
+     */
+    public boolean next(int[] cells) throws IOException {
+        boolean read;
+        switch (format) {
+            case EULER:
+                read = readEuler(cells);
+                break;
+            case GRID:
+                read = readGrid(cells, nextLine());
+                break;
+            case LINE:
+                read = readLine(cells);
+                break;
+            default:
+                read = readBinary(cells);
+        }
+        if (read) {
+            count++;
+        }
+        return read;
+    }
+
+    /**
+     * @return the number of puzzles read so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (text != null) {
+            text.close();
+        } else {
+            binary.close();
+        }
+    }
+
+    /**
+     * @return the next line that isn't blank, or null at the end of the stream
+     */
+    private String nextLine() throws IOException {
+        String line;
+        do {
+            line = text.readLine();
+            lineNumber++;
+        } while (line != null && line.trim().isEmpty());
+        return line;
+    }
+
+    private boolean readEuler(int[] cells) throws IOException {
+        String header = nextLine();
+        if (header == null) {
+            return false;
+        }
+        if (!header.startsWith("Grid")) {
+            throw malformed("expected a \"Grid\" line");
+        }
+        if (!readGrid(cells, nextLine())) {
+            throw malformed("missing grid after header");
+        }
+        return true;
+    }
+
+    private boolean readGrid(int[] cells, String first) throws IOException {
+        if (first == null) {
+            return false;
+        }
+        String line = first;
+        for (int y = 0; y < Sudoku.GRID_SIZE; y++) {
+            if (y > 0) {
+                line = text.readLine();
+                lineNumber++;
+                if (line == null) {
+                    throw malformed("grid ended early");
+                }
+            }
+            line = line.trim();
+            if (line.length() != Sudoku.GRID_SIZE) {
+                throw malformed("expected " + Sudoku.GRID_SIZE + " characters");
+            }
+            for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+                cells[Masks.index(x, y)] = valueOf(line.charAt(x));
+            }
+        }
+        return true;
+    }
+
+    private boolean readLine(int[] cells) throws IOException {
+        String line = nextLine();
+        if (line == null) {
+            return false;
+        }
+        line = line.trim();
+        if (line.length() != Masks.CELL_COUNT) {
+            throw malformed("expected " + Masks.CELL_COUNT + " characters");
+        }
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            cells[i] = valueOf(line.charAt(i));
+        }
+        return true;
+    }
+
+    private boolean readBinary(int[] cells) throws IOException {
+        int filled = 0;
+        while (filled < record.length) {
+            int read = binary.read(record, filled, record.length - filled);
+            if (read < 0) {
+                if (filled == 0) {
+                    return false;
+                }
+                throw new EOFException("Truncated binary record after " + count + " puzzles");
+            }
+            filled += read;
+        }
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int packed = record[i >> 1];
+            int value = (i & 1) == 0 ? (packed >> 4) & 0xF : packed & 0xF;
+            if (value > Sudoku.GRID_SIZE) {
+                throw new IOException("Invalid value " + value + " in binary record " + count);
+            }
+            cells[i] = value;
+        }
+        return true;
+    }
+
+    private int valueOf(char c) throws IOException {
+        if (c == '.' || c == '0') {
+            return 0;
+        }
+        if (c < '1' || c > '9') {
+            throw malformed("unexpected character '" + c + "'");
+        }
+        return c - '0';
+    }
+
+    private IOException malformed(String reason) {
+        return new IOException("Malformed " + format + " puzzle at line " + lineNumber + ": " + reason);
+    }
+}
@@ -0,0 +1,132 @@
+package com.lyndonarmitage.sudoku.format;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes puzzles one at a time to a stream in any {@link PuzzleFormat}.<br />
+ * Each puzzle is encoded into a reused buffer and written straight out, so nothing builds up in memory however many
+ * puzzles are written.
+ */
+public class PuzzleWriter implements Closeable, Flushable {
+
+    /**
+     * The size in bytes of a puzzle in the {@link PuzzleFormat#BINARY} format
+     */
+    public static final int BINARY_RECORD_SIZE = (Masks.CELL_COUNT + 1) / 2;
+
+    private static final byte[] GRID_HEADER = {'G', 'r', 'i', 'd', ' '};
+
+    private final PuzzleFormat format;
+    private final OutputStream out;
+    // big enough for the largest format, a Euler header followed by a grid
+    private final byte[] buffer = new byte[32 + Masks.CELL_COUNT + Sudoku.GRID_SIZE];
+    private long count;
+
+    /**
+     * @param out    the stream to write to, closed when this writer is closed
+     * @param format the format to write
+     */
+    public PuzzleWriter(OutputStream out, PuzzleFormat format) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        this.format = format;
+    }
+
+    /**
+     * Write a puzzle
+     *
+     * @param cells {@link Masks#CELL_COUNT} values 0-9, indexed by {@link Masks#index(int, int)}
+     * @throws IOException if the stream can't be written to
+     */
+    public void write(int[] cells) throws IOException {
+        int size = 0;
+        switch (format) {
+            case EULER:
+                size = writeHeader(count + 1);
+                size = writeGrid(cells, size);
+                break;
+            case GRID:
+                if (count > 0) {
+                    buffer[size++] = '\n';
+                }
+                size = writeGrid(cells, size);
+                break;
+            case LINE:
+                for (int i = 0; i < Masks.CELL_COUNT; i++) {
+                    buffer[size++] = digit(cells[i]);
+                }
+                buffer[size++] = '\n';
+                break;
+            default:
+                for (int i = 0; i < BINARY_RECORD_SIZE; i++) {
+                    int high = cells[i * 2];
+                    int low = i * 2 + 1 < Masks.CELL_COUNT ? cells[i * 2 + 1] : 0;
+                    buffer[size++] = (byte) (nibble(high) << 4 | nibble(low));
+                }
+        }
+        out.write(buffer, 0, size);
+        count++;
+    }
+
+    /**
+     * @return the number of puzzles written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Writes "Grid NN" with the number padded to at least two digits
+     */
+    private int writeHeader(long number) {
+        int size = 0;
+        for (int i = 0; i < GRID_HEADER.length; i++) {
+            buffer[size++] = GRID_HEADER[i];
+        }
+        int digits = 2;
+        for (long rest = number / 100; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[size + i] = (byte) ('0' + number % 10);
+            number /= 10;
+        }
+        size += digits;
+        buffer[size++] = '\n';
+        return size;
+    }
+
+    private int writeGrid(int[] cells, int size) {
+        for (int y = 0; y < Sudoku.GRID_SIZE; y++) {
+            for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+                buffer[size++] = digit(cells[Masks.index(x, y)]);
+            }
+            buffer[size++] = '\n';
+        }
+        return size;
+    }
+
+    private static byte digit(int value) {
+        return (byte) ('0' + nibble(value));
+    }
+
+    private static int nibble(int value) {
+        return value < 0 || value > Sudoku.GRID_SIZE ? 0 : value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.lyndonarmitage.sudoku.sat;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, used for the watch lists and trail of the {@link SatSolver}
+ */
+final class IntList {
+    int[] data;
+    int size;
+
+    IntList(int capacity) {
+        data = new int[Math.max(capacity, 2)];
+    }
+
+    void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = value;
+    }
+
+    int get(int index) {
+        return data[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
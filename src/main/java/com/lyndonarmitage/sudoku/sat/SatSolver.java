@@ -0,0 +1,483 @@
+package com.lyndonarmitage.sudoku.sat;
+
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small conflict driven clause learning (CDCL) SAT solver.<br />
+ * Variables are numbered from 0 and a literal is <code>2 * variable</code> when positive and
+ * <code>2 * variable + 1</code> when negated (see {@link SatSolver#literal(int, boolean)}). It uses:
+ * <ul>
+ * <li>two watched literals per clause for unit propagation</li>
+ * <li>first unique implication point conflict analysis, learning a new clause (nogood) from each conflict and
+ * jumping back to the level where it becomes unit</li>
+ * <li>activity based (VSIDS) branching, bumping the variables involved in each conflict</li>
+ * <li>phase saving and restarts following the Luby sequence</li>
+ * </ul>
+ * Clauses are added up front and then {@link SatSolver#solve(SolveBudget)} is called once.
+ */
+public class SatSolver {
+
+    /**
+     * Told about every literal the solver makes true, for tracing a solve
+     */
+    public interface Listener {
+        /**
+         * @param literal  the literal made true
+         * @param level    the decision level it was made at, 0 for literals that hold in every solution
+         * @param decision true if the solver chose it, false if it was forced by the clauses
+         */
+        void assigned(int literal, int level, boolean decision);
+    }
+
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+    private static final byte UNDEFINED = 0;
+    private static final int NO_REASON = -1;
+    private static final int RESTART_BASE = 100;
+    private static final double VARIABLE_DECAY = 0.95;
+    private static final int CLOCK_CHECK_MASK = 0xFF;
+
+    private final int variableCount;
+    private final List<int[]> clauses = new ArrayList<>();
+    private final IntList[] watches;
+    private final byte[] assigns;
+    private final byte[] polarity;
+    private final int[] level;
+    private final int[] reason;
+    private final boolean[] seen;
+    private final int[] trail;
+    private final IntList trailLimits = new IntList(64);
+    private final IntList learnt = new IntList(64);
+    private final double[] activity;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private int heapSize;
+    private double variableIncrement = 1;
+    private int trailSize;
+    private int queueHead;
+    private boolean ok = true;
+    private long decisions;
+    private long conflicts;
+    private Listener listener;
+
+    /**
+     * @param variableCount the number of variables
+     */
+    public SatSolver(int variableCount) {
+        this.variableCount = variableCount;
+        this.watches = new IntList[variableCount * 2];
+        for (int i = 0; i < watches.length; i++) {
+            watches[i] = new IntList(4);
+        }
+        this.assigns = new byte[variableCount];
+        this.polarity = new byte[variableCount];
+        Arrays.fill(polarity, (byte) 1);
+        this.level = new int[variableCount];
+        this.reason = new int[variableCount];
+        Arrays.fill(reason, NO_REASON);
+        this.seen = new boolean[variableCount];
+        this.trail = new int[variableCount];
+        this.activity = new double[variableCount];
+        this.heap = new int[variableCount];
+        this.heapIndex = new int[variableCount];
+        for (int v = 0; v < variableCount; v++) {
+            heap[v] = v;
+            heapIndex[v] = v;
+        }
+        this.heapSize = variableCount;
+    }
+
+    /**
+     * @param listener told about every assignment from now on, including those made by unit clauses as they are
+     *                 added, or null to stop reporting
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param variable the variable
+     * @param positive whether the literal is the variable or its negation
+     * @return the literal
+     */
+    public static int literal(int variable, boolean positive) {
+        return variable * 2 + (positive ? 0 : 1);
+    }
+
+    /**
+     * Add a clause (a disjunction of literals). Must be called before solving.
+     *
+     * @param literals the literals of the clause
+     * @return false if the clauses so far are already known to be unsatisfiable
+     */
+    public boolean addClause(int... literals) {
+        if (!ok) {
+            return false;
+        }
+        int size = 0;
+        int[] clause = new int[literals.length];
+        for (int literal : literals) {
+            byte value = value(literal);
+            if (value == TRUE) {
+                return true;
+            }
+            if (value == UNDEFINED) {
+                clause[size++] = literal;
+            }
+        }
+        if (size == 0) {
+            ok = false;
+        } else if (size == 1) {
+            enqueue(clause[0], NO_REASON);
+        } else {
+            attach(size == clause.length ? clause : Arrays.copyOf(clause, size));
+        }
+        return ok;
+    }
+
+    /**
+     * Search for an assignment satisfying every clause
+     *
+     * @param budget the limits on the search, decisions count as nodes
+     * @return {@link SolveStatus#SOLVED} if an assignment was found, {@link SolveStatus#UNSOLVABLE} if none exists or
+     * {@link SolveStatus#BUDGET_EXHAUSTED} if the budget ran out. When the budget runs out only the assignments that
+     * hold in every solution are left in place
+     */
+    public SolveStatus solve(SolveBudget budget) {
+        if (!ok || propagate() != NO_REASON) {
+            ok = false;
+            return SolveStatus.UNSOLVABLE;
+        }
+        long maxNodes = budget.getMaxNodes();
+        boolean timed = budget.isTimed();
+        long deadline = budget.deadlineFrom(System.nanoTime());
+        int restarts = 0;
+        long restartLimit = RESTART_BASE;
+        long conflictsSinceRestart = 0;
+        while (true) {
+            int conflict = propagate();
+            if (conflict != NO_REASON) {
+                conflicts++;
+                conflictsSinceRestart++;
+                if (decisionLevel() == 0) {
+                    ok = false;
+                    return SolveStatus.UNSOLVABLE;
+                }
+                int backtrackLevel = analyze(conflict);
+                cancelUntil(backtrackLevel);
+                if (learnt.size == 1) {
+                    enqueue(learnt.get(0), NO_REASON);
+                } else {
+                    int[] clause = Arrays.copyOf(learnt.data, learnt.size);
+                    enqueue(clause[0], attach(clause));
+                }
+                variableIncrement /= VARIABLE_DECAY;
+            } else {
+                if (conflictsSinceRestart >= restartLimit) {
+                    cancelUntil(0);
+                    restarts++;
+                    restartLimit = RESTART_BASE * luby(restarts);
+                    conflictsSinceRestart = 0;
+                }
+                int next = pickBranch();
+                if (next < 0) {
+                    return SolveStatus.SOLVED;
+                }
+                if (decisions >= maxNodes
+                        || (timed && (decisions & CLOCK_CHECK_MASK) == 0 && System.nanoTime() - deadline >= 0)) {
+                    cancelUntil(0);
+                    return SolveStatus.BUDGET_EXHAUSTED;
+                }
+                decisions++;
+                trailLimits.add(trailSize);
+                enqueue(next, NO_REASON);
+            }
+        }
+    }
+
+    /**
+     * @param variable the variable
+     * @return true if the variable is currently assigned true
+     */
+    public boolean isTrue(int variable) {
+        return assigns[variable] == TRUE;
+    }
+
+    /**
+     * @return the number of branching decisions made
+     */
+    public long getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * @return the number of conflicts found (and clauses learnt)
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * @return the number of variables
+     */
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    private byte value(int literal) {
+        byte assign = assigns[literal >> 1];
+        return (literal & 1) == 0 ? assign : (byte) -assign;
+    }
+
+    private int decisionLevel() {
+        return trailLimits.size;
+    }
+
+    private int attach(int[] clause) {
+        int index = clauses.size();
+        clauses.add(clause);
+        watches[clause[0]].add(index);
+        watches[clause[1]].add(index);
+        return index;
+    }
+
+    private void enqueue(int literal, int from) {
+        if (listener != null) {
+            int level = decisionLevel();
+            // a decision is the first literal on the trail at its level
+            listener.assigned(literal, level, level > 0 && trailSize == trailLimits.get(level - 1));
+        }
+        int variable = literal >> 1;
+        assigns[variable] = (literal & 1) == 0 ? TRUE : FALSE;
+        level[variable] = decisionLevel();
+        reason[variable] = from;
+        trail[trailSize++] = literal;
+    }
+
+    /**
+     * Assigns every literal made unit by the assignments on the trail
+     *
+     * @return the index of a clause made false, or {@link SatSolver#NO_REASON} if there was no conflict
+     */
+    private int propagate() {
+        while (queueHead < trailSize) {
+            int falseLiteral = trail[queueHead++] ^ 1;
+            IntList watching = watches[falseLiteral];
+            int[] data = watching.data;
+            int kept = 0;
+            int i = 0;
+            int size = watching.size;
+            while (i < size) {
+                int index = data[i++];
+                int[] clause = clauses.get(index);
+                if (clause[0] == falseLiteral) {
+                    clause[0] = clause[1];
+                    clause[1] = falseLiteral;
+                }
+                if (value(clause[0]) == TRUE) {
+                    data[kept++] = index;
+                    continue;
+                }
+                boolean moved = false;
+                for (int k = 2; k < clause.length; k++) {
+                    if (value(clause[k]) != FALSE) {
+                        clause[1] = clause[k];
+                        clause[k] = falseLiteral;
+                        watches[clause[1]].add(index);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) {
+                    continue;
+                }
+                data[kept++] = index;
+                if (value(clause[0]) == FALSE) {
+                    while (i < size) {
+                        data[kept++] = data[i++];
+                    }
+                    watching.size = kept;
+                    queueHead = trailSize;
+                    return index;
+                }
+                enqueue(clause[0], index);
+            }
+            watching.size = kept;
+        }
+        return NO_REASON;
+    }
+
+    /**
+     * Works out the clause to learn from a conflict, leaving it in {@link SatSolver#learnt} with the asserting literal
+     * first and a literal from the backtrack level second
+     *
+     * @return the level to backtrack to
+     */
+    private int analyze(int conflict) {
+        learnt.clear();
+        learnt.add(0);
+        int pathCount = 0;
+        int literal = -1;
+        int index = trailSize - 1;
+        do {
+            int[] clause = clauses.get(conflict);
+            for (int k = literal == -1 ? 0 : 1; k < clause.length; k++) {
+                int q = clause[k];
+                int variable = q >> 1;
+                if (!seen[variable] && level[variable] > 0) {
+                    bump(variable);
+                    seen[variable] = true;
+                    if (level[variable] >= decisionLevel()) {
+                        pathCount++;
+                    } else {
+                        learnt.add(q);
+                    }
+                }
+            }
+            while (!seen[trail[index] >> 1]) {
+                index--;
+            }
+            literal = trail[index--];
+            conflict = reason[literal >> 1];
+            seen[literal >> 1] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        learnt.data[0] = literal ^ 1;
+
+        int backtrackLevel = 0;
+        int maxIndex = 1;
+        for (int k = 1; k < learnt.size; k++) {
+            int variable = learnt.data[k] >> 1;
+            seen[variable] = false;
+            if (level[variable] > backtrackLevel) {
+                backtrackLevel = level[variable];
+                maxIndex = k;
+            }
+        }
+        if (learnt.size > 1) {
+            int swap = learnt.data[1];
+            learnt.data[1] = learnt.data[maxIndex];
+            learnt.data[maxIndex] = swap;
+        }
+        return backtrackLevel;
+    }
+
+    private void cancelUntil(int targetLevel) {
+        if (decisionLevel() <= targetLevel) {
+            return;
+        }
+        int limit = trailLimits.get(targetLevel);
+        for (int c = trailSize - 1; c >= limit; c--) {
+            int variable = trail[c] >> 1;
+            polarity[variable] = (byte) (trail[c] & 1);
+            assigns[variable] = UNDEFINED;
+            reason[variable] = NO_REASON;
+            if (heapIndex[variable] < 0) {
+                heapInsert(variable);
+            }
+        }
+        trailSize = limit;
+        queueHead = limit;
+        trailLimits.size = targetLevel;
+    }
+
+    private int pickBranch() {
+        while (heapSize > 0) {
+            int variable = heapRemoveMax();
+            if (assigns[variable] == UNDEFINED) {
+                return variable * 2 + polarity[variable];
+            }
+        }
+        return -1;
+    }
+
+    private void bump(int variable) {
+        activity[variable] += variableIncrement;
+        if (activity[variable] > 1e100) {
+            for (int v = 0; v < variableCount; v++) {
+                activity[v] *= 1e-100;
+            }
+            variableIncrement *= 1e-100;
+        }
+        if (heapIndex[variable] >= 0) {
+            siftUp(heapIndex[variable]);
+        }
+    }
+
+    private void heapInsert(int variable) {
+        heap[heapSize] = variable;
+        heapIndex[variable] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int heapRemoveMax() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapIndex[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int position) {
+        int variable = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >> 1;
+            if (activity[heap[parent]] >= activity[variable]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapIndex[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = variable;
+        heapIndex[variable] = position;
+    }
+
+    private void siftDown(int position) {
+        int variable = heap[position];
+        while (true) {
+            int child = position * 2 + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && activity[heap[child + 1]] > activity[heap[child]]) {
+                child++;
+            }
+            if (activity[heap[child]] <= activity[variable]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapIndex[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = variable;
+        heapIndex[variable] = position;
+    }
+
+    /**
+     * @return the i-th value (from 0) of the Luby sequence 1, 1, 2, 1, 1, 2, 4, ...
+     */
+    static long luby(int i) {
+        int size = 1;
+        int sequence = 0;
+        while (size < i + 1) {
+            sequence++;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != i) {
+            size = (size - 1) >> 1;
+            sequence--;
+            i = i % size;
+        }
+        return 1L << sequence;
+    }
+}
@@ -0,0 +1,350 @@
+package com.lyndonarmitage.sudoku.service;
+
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.metrics.LatencyHistogram;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import com.lyndonarmitage.sudoku.solvers.LineSolver;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small HTTP solving service built on the JDK's own HTTP server, so it needs no extra dependencies.<br />
+ * Endpoints:
+ * <ul>
+ * <li><code>POST /solve</code> with one or more Sudokus in the single line format (see
+ * {@link Sudoku#parseLine(CharSequence)}), one per line. The response has one {@link LineSolver} answer per
+ * Sudoku.</li>
+ * <li><code>GET /stats</code> returns request counts and latency percentiles as JSON.</li>
+ * </ul>
+ * Puzzles from concurrent requests are put on a shared queue, and each of a fixed number of worker threads takes
+ * them off in micro-batches of up to <code>maxBatch</code> at a time, reusing one solver per worker. The number of
+ * puzzles waiting is bounded; once it's full new requests are turned away with a 503 rather than queueing forever.
+ * A request with more puzzles than could ever be queued, or a body too big to hold them, gets a 413 straight away.<br />
+ * Requests are handled by a fixed pool of threads with a bounded backlog, and connections arriving when both are full
+ * are closed without a response, so a flood of clients can't make the server start ever more threads.
+ */
+public class SolveServer {
+    private static final Logger logger = LoggerFactory.getLogger(SolveServer.class);
+
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * The most bytes allowed in a request body for each puzzle that can be queued, room for a line with some blank
+     * lines and whitespace around it
+     */
+    private static final int MAX_BYTES_PER_PUZZLE = 128;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final Thread[] workers;
+    private final BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final int maxQueued;
+    private final int maxBodyBytes;
+    private final int maxBatch;
+    private final SolveBudget budget;
+    private final LatencyHistogram requestLatency = new LatencyHistogram();
+    private final LatencyHistogram solveLatency = new LatencyHistogram();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile boolean running;
+
+    /**
+     * Create a server handling enough requests at once to fill every worker's batch, it isn't started until
+     * {@link SolveServer#start()} is called
+     *
+     * @param address      The address to listen on, a port of 0 picks a free port
+     * @param workerCount  The number of solving threads
+     * @param maxBatch     The most puzzles a worker takes off the queue at once
+     * @param maxQueued    The most puzzles that can be waiting to be solved before requests are rejected
+     * @param budget       The budget given to each puzzle
+     * @throws IOException if the server couldn't bind to the address
+     */
+    public SolveServer(InetSocketAddress address, int workerCount, int maxBatch, int maxQueued, SolveBudget budget) throws IOException {
+        this(address, workerCount, maxBatch, maxQueued, (int) Math.min(maxQueued, (long) workerCount * maxBatch), budget);
+    }
+
+    /**
+     * Create a server, it isn't started until {@link SolveServer#start()} is called
+     *
+     * @param address      The address to listen on, a port of 0 picks a free port
+     * @param workerCount  The number of solving threads
+     * @param maxBatch     The most puzzles a worker takes off the queue at once
+     * @param maxQueued    The most puzzles that can be waiting to be solved before requests are rejected
+     * @param maxRequests  The most requests handled at once, as many again can wait for a handler
+     * @param budget       The budget given to each puzzle
+     * @throws IOException if the server couldn't bind to the address
+     */
+    public SolveServer(InetSocketAddress address, int workerCount, int maxBatch, int maxQueued, int maxRequests,
+                       SolveBudget budget) throws IOException {
+        if (workerCount < 1 || maxBatch < 1 || maxQueued < 1 || maxRequests < 1) {
+            throw new IllegalArgumentException("workerCount, maxBatch, maxQueued and maxRequests must all be at least 1");
+        }
+        this.maxBatch = maxBatch;
+        this.maxQueued = maxQueued;
+        this.maxBodyBytes = (int) Math.min(Integer.MAX_VALUE - 8, (long) maxQueued * MAX_BYTES_PER_PUZZLE);
+        this.capacity = new Semaphore(maxQueued);
+        this.budget = budget;
+        this.server = HttpServer.create(address, 0);
+        // the JDK server closes the connection when its executor rejects it
+        this.handlers = new ThreadPoolExecutor(maxRequests, maxRequests, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxRequests), runnable -> new Thread(runnable, "solve-handler"),
+                (runnable, executor) -> {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Too many requests");
+                });
+        this.server.setExecutor(handlers);
+        this.server.createContext("/solve", this::handleSolve);
+        this.server.createContext("/stats", this::handleStats);
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::work, "solve-worker-" + i);
+            workers[i].setDaemon(true);
+        }
+    }
+
+    /**
+     * Main entry point for the service
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the optional port to listen on, defaults to 8080</li>
+     *             <li>arg[1] is the optional number of worker threads, defaults to the number of processors</li>
+     *             <li>arg[2] is the optional time budget per puzzle in milliseconds, defaults to 1000</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int workerCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long budgetMillis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+        SolveServer server = new SolveServer(new InetSocketAddress(port), workerCount, 64, 100000,
+                SolveBudget.timeout(budgetMillis, TimeUnit.MILLISECONDS));
+        server.start();
+        logger.info("Listening on port {} with {} workers", server.getPort(), workerCount);
+    }
+
+    public void start() {
+        running = true;
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        server.start();
+    }
+
+    public void stop() {
+        running = false;
+        server.stop(0);
+        handlers.shutdownNow();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * @return The port the server is listening on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return The latency of whole requests, from being read to being answered
+     */
+    public LatencyHistogram getRequestLatency() {
+        return requestLatency;
+    }
+
+    /**
+     * @return The time taken to solve each puzzle
+     */
+    public LatencyHistogram getSolveLatency() {
+        return solveLatency;
+    }
+
+    /**
+     * @return The number of requests turned away because the queue or the handlers were full
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use POST with one Sudoku per line\n");
+                return;
+            }
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            byte[] body = length != null && parseLength(length) > maxBodyBytes
+                    ? null
+                    : readBody(exchange.getRequestBody(), maxBodyBytes);
+            if (body == null) {
+                respond(exchange, 413, "Request body over " + maxBodyBytes + " bytes\n");
+                return;
+            }
+            List<String> lines = lines(body);
+            if (lines.size() > maxQueued) {
+                respond(exchange, 413, "Too many puzzles in one request, the most is " + maxQueued + "\n");
+                return;
+            }
+            if (!capacity.tryAcquire(lines.size())) {
+                rejected.incrementAndGet();
+                respond(exchange, 503, "Too many puzzles queued, try again later\n");
+                return;
+            }
+            CountDownLatch done = new CountDownLatch(lines.size());
+            String[] results = new String[lines.size()];
+            for (int i = 0; i < lines.size(); i++) {
+                queue.add(new Task(lines.get(i), results, i, done));
+            }
+            done.await();
+            StringBuilder builder = new StringBuilder(results.length * (Sudoku.GRID_SIZE * Sudoku.GRID_SIZE + 1));
+            for (String result : results) {
+                builder.append(result).append('\n');
+            }
+            requestLatency.record(System.nanoTime() - start);
+            respond(exchange, 200, builder.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "Server shutting down\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            String json = "{\"requests\":" + requestLatency.getCount()
+                    + ",\"puzzles\":" + solveLatency.getCount()
+                    + ",\"batches\":" + batches.get()
+                    + ",\"rejected\":" + rejected.get()
+                    + ",\"queued\":" + queue.size()
+                    + ",\"requestP50Micros\":" + requestLatency.getPercentile(50) / 1000
+                    + ",\"requestP99Micros\":" + requestLatency.getPercentile(99) / 1000
+                    + ",\"requestMaxMicros\":" + requestLatency.getMax() / 1000
+                    + ",\"solveP50Micros\":" + solveLatency.getPercentile(50) / 1000
+                    + ",\"solveP99Micros\":" + solveLatency.getPercentile(99) / 1000
+                    + "}\n";
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            respond(exchange, 200, json);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static long parseLength(String length) {
+        try {
+            return Long.parseLong(length.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the whole body, or null if it is longer than the limit
+     */
+    private static byte[] readBody(InputStream in, int limit) throws IOException {
+        byte[] buffer = new byte[Math.min(limit + 1, 8192)];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+            if (length > limit) {
+                return null;
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(limit + 1L, buffer.length * 2L));
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * @return the trimmed lines of the body that aren't empty
+     */
+    private static List<String> lines(byte[] body) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= body.length; i++) {
+            if (i == body.length || body[i] == '\n') {
+                String line = new String(body, start, i - start, StandardCharsets.US_ASCII).trim();
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+                start = i + 1;
+            }
+        }
+        return lines;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        exchange.sendResponseHeaders(status, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.close();
+    }
+
+    private void work() {
+        LineSolver solver = new LineSolver(new BacktrackingSolver(), budget);
+        List<Task> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            batches.incrementAndGet();
+            for (Task task : batch) {
+                long start = System.nanoTime();
+                try {
+                    task.results[task.index] = solver.solve(task.line);
+                } catch (RuntimeException e) {
+                    logger.error("Error solving " + task.line, e);
+                    task.results[task.index] = "ERROR " + e;
+                }
+                solveLatency.record(System.nanoTime() - start);
+                capacity.release();
+                task.done.countDown();
+            }
+            batch.clear();
+        }
+    }
+
+    private static final class Task {
+        private final String line;
+        private final String[] results;
+        private final int index;
+        private final CountDownLatch done;
+
+        private Task(String line, String[] results, int index, CountDownLatch done) {
+            this.line = line;
+            this.results = results;
+            this.index = index;
+            this.done = done;
+        }
+    }
+}
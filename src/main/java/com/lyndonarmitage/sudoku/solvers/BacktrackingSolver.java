@@ -0,0 +1,250 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.BudgetedSolver;
+import com.lyndonarmitage.sudoku.Candidates;
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.ObservableSolver;
+import com.lyndonarmitage.sudoku.Propagator;
+import com.lyndonarmitage.sudoku.Regions;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.SolverListener;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+
+import static com.lyndonarmitage.sudoku.Units.COLUMN_OF;
+import static com.lyndonarmitage.sudoku.Units.ROW_OF;
+
+/**
+ * Depth first search solver using candidate bit masks kept up to date by a {@link Propagator}.<br />
+ * Every assignment, including each branch of the search, is followed by constraint propagation (naked and hidden
+ * singles cascading until nothing changes) so dead ends are found as early as possible. The search always branches on
+ * the unsolved cell with the fewest candidates. Variants such as X-Sudoku or jigsaw Sudoku are solved by passing their
+ * {@link Regions}.<br />
+ * The search uses an explicit stack so it can be stopped part way through by a {@link SolveBudget}, in which case the
+ * Sudoku is left with only the values forced by the givens filled in.<br />
+ * A {@link SolverListener} is told about every guess and backtrack of the search, and about every candidate
+ * removed and value placed by propagation, including the givens and what follows from them.<br />
+ * Instances reuse their working arrays between solves so are not thread safe.
+ */
+public class BacktrackingSolver extends ObservableSolver implements BudgetedSolver {
+
+    /**
+     * The size in bytes of a puzzle packed for {@link BacktrackingSolver#solveBatch(byte[], byte[], SolveBudget)}, the
+     * same as a {@link com.lyndonarmitage.sudoku.format.PuzzleFormat#BINARY} record
+     */
+    public static final int PACKED_SIZE = (Masks.CELL_COUNT + 1) / 2;
+
+    // how many nodes to visit between checks of the clock
+    private static final int CLOCK_CHECK_MASK = 0xFF;
+
+    private final int[] puzzle = new int[Masks.CELL_COUNT];
+    private final int[] original = new int[Masks.CELL_COUNT];
+    private final Propagator propagator;
+    private final int[] stackCell = new int[Masks.CELL_COUNT];
+    private final int[] stackRemaining = new int[Masks.CELL_COUNT];
+    private final int[] stackMark = new int[Masks.CELL_COUNT];
+    private long nodes;
+
+    /**
+     * Create a solver for standard Sudokus
+     */
+    public BacktrackingSolver() {
+        this(Regions.STANDARD);
+    }
+
+    /**
+     * @param regions the units of the variant to solve, for example {@link Regions#diagonal()}
+     */
+    public BacktrackingSolver(Regions regions) {
+        this.propagator = new Propagator(regions);
+    }
+
+    @Override
+    public void setListener(SolverListener listener) {
+        super.setListener(listener);
+        propagator.setListener(listener);
+    }
+
+    @Override
+    public void solve(Sudoku sudoku) throws SudokuException {
+        SolveResult result = solve(sudoku, SolveBudget.UNLIMITED);
+        if (result.getStatus() == SolveStatus.UNSOLVABLE) {
+            Log.logger.warn("Sudoku has no solution");
+        }
+    }
+
+    @Override
+    public SolveResult solve(Sudoku sudoku, SolveBudget budget) throws SudokuException {
+        long startTime = System.nanoTime();
+        SolveStatus status = solveCells(sudoku.toCells(puzzle), budget, startTime);
+        sudoku.parseCells(puzzle);
+        long elapsed = System.nanoTime() - startTime;
+        Log.logger.debug("{} after {} nodes, took {}ns", status, nodes, elapsed);
+        return new SolveResult(status, sudoku, Candidates.of(sudoku), nodes, elapsed);
+    }
+
+    /**
+     * Solve a Sudoku held as a flat array of cells, without creating any objects.<br />
+     * The array is updated the same way as {@link BacktrackingSolver#solve(Sudoku, SolveBudget)} updates a Sudoku:
+     * solved, left with only the forced values if the budget runs out, or untouched if there is no solution.
+     *
+     * @param puzzle {@link Masks#CELL_COUNT} values between 0-9 indexed by {@link Masks#index(int, int)}
+     * @param budget the limits on the solve
+     * @return the status of the solve
+     */
+    public SolveStatus solveCells(int[] puzzle, SolveBudget budget) {
+        return solveCells(puzzle, budget, System.nanoTime());
+    }
+
+    /**
+     * Solve a batch of puzzles packed in the {@link com.lyndonarmitage.sudoku.format.PuzzleFormat#BINARY} layout, two
+     * cells to a byte with the first cell in the high nibble, writing each answer to the output in the same layout.<br />
+     * Nothing is allocated per puzzle: the same cell array, candidates and search stack are used for every one, so a
+     * large batch (or a memory mapped file of them) can be solved without any garbage collection.<br />
+     * Every whole record remaining in the input is solved, and the positions of both buffers are moved past the
+     * records read and written. Answers are as {@link BacktrackingSolver#solveCells(int[], SolveBudget)} leaves them,
+     * so a puzzle that isn't solved is written back with only its forced values filled in.
+     *
+     * @param puzzles   the packed puzzles
+     * @param solutions where to write the packed answers, needs as many bytes remaining as the puzzles
+     * @param budget    the limits on each puzzle's solve
+     * @param statuses  optional array to record the status of each puzzle in, may be null
+     * @return the number of puzzles solved
+     */
+    public int solveBatch(ByteBuffer puzzles, ByteBuffer solutions, SolveBudget budget, SolveStatus[] statuses) {
+        int count = puzzles.remaining() / PACKED_SIZE;
+        if (solutions.remaining() < count * PACKED_SIZE) {
+            throw new IllegalArgumentException("Room for " + solutions.remaining() / PACKED_SIZE + " solutions but "
+                    + count + " puzzles");
+        }
+        if (statuses != null && statuses.length < count) {
+            throw new IllegalArgumentException("Room for " + statuses.length + " statuses but " + count + " puzzles");
+        }
+        int solved = 0;
+        for (int p = 0; p < count; p++) {
+            for (int i = 0; i < Masks.CELL_COUNT; i += 2) {
+                int packed = puzzles.get();
+                puzzle[i] = unpack((packed >> 4) & 0xF);
+                if (i + 1 < Masks.CELL_COUNT) {
+                    puzzle[i + 1] = unpack(packed & 0xF);
+                }
+            }
+            SolveStatus status = solveCells(puzzle, budget, System.nanoTime());
+            if (status == SolveStatus.SOLVED) {
+                solved++;
+            }
+            if (statuses != null) {
+                statuses[p] = status;
+            }
+            for (int i = 0; i < Masks.CELL_COUNT; i += 2) {
+                int low = i + 1 < Masks.CELL_COUNT ? puzzle[i + 1] : 0;
+                solutions.put((byte) (puzzle[i] << 4 | low));
+            }
+        }
+        return solved;
+    }
+
+    /**
+     * Solve a batch of packed puzzles held in arrays, see
+     * {@link BacktrackingSolver#solveBatch(ByteBuffer, ByteBuffer, SolveBudget, SolveStatus[])}
+     *
+     * @param puzzles   the packed puzzles, {@link BacktrackingSolver#PACKED_SIZE} bytes each
+     * @param solutions where to write the packed answers, at least as long as the puzzles
+     * @param budget    the limits on each puzzle's solve
+     * @return the number of puzzles solved
+     */
+    public int solveBatch(byte[] puzzles, byte[] solutions, SolveBudget budget) {
+        return solveBatch(ByteBuffer.wrap(puzzles), ByteBuffer.wrap(solutions), budget, null);
+    }
+
+    private static int unpack(int value) {
+        if (value > Sudoku.GRID_SIZE) {
+            throw new IllegalArgumentException("Invalid packed value " + value);
+        }
+        return value;
+    }
+
+    /**
+     * @return the number of search nodes visited by the last solve
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private SolveStatus solveCells(int[] puzzle, SolveBudget budget, long startTime) {
+        nodes = 0;
+        if (!propagator.load(puzzle)) {
+            return SolveStatus.UNSOLVABLE;
+        }
+        // the propagated values are always correct so can be kept even if the search doesn't finish
+        System.arraycopy(puzzle, 0, original, 0, Masks.CELL_COUNT);
+        propagator.fill(puzzle);
+        SolveStatus status = search(budget, startTime);
+        if (status == SolveStatus.SOLVED) {
+            propagator.fill(puzzle);
+        } else if (status == SolveStatus.UNSOLVABLE) {
+            // only the search found the contradiction, the puzzle is left as it was given
+            System.arraycopy(original, 0, puzzle, 0, Masks.CELL_COUNT);
+        }
+        return status;
+    }
+
+    private SolveStatus search(SolveBudget budget, long startTime) {
+        long maxNodes = budget.getMaxNodes();
+        boolean timed = budget.isTimed();
+        long deadline = budget.deadlineFrom(startTime);
+        int depth = 0;
+        boolean descend = true;
+        while (true) {
+            if (descend) {
+                int cell = propagator.chooseCell();
+                if (cell == Propagator.COMPLETE) {
+                    return SolveStatus.SOLVED;
+                }
+                if (nodes >= maxNodes
+                        || (timed && (nodes & CLOCK_CHECK_MASK) == 0 && System.nanoTime() - deadline >= 0)) {
+                    return SolveStatus.BUDGET_EXHAUSTED;
+                }
+                nodes++;
+                stackCell[depth] = cell;
+                stackRemaining[depth] = propagator.getMask(cell);
+                stackMark[depth] = propagator.mark();
+                depth++;
+            }
+            if (depth == 0) {
+                return SolveStatus.UNSOLVABLE;
+            }
+            int top = depth - 1;
+            propagator.undo(stackMark[top]);
+            int remaining = stackRemaining[top];
+            if (remaining == 0) {
+                if (listener != null) {
+                    listener.backtracked(COLUMN_OF[stackCell[top]], ROW_OF[stackCell[top]], top);
+                }
+                depth--;
+                descend = false;
+                continue;
+            }
+            int bit = remaining & -remaining;
+            stackRemaining[top] = remaining ^ bit;
+            if (listener != null) {
+                listener.branched(COLUMN_OF[stackCell[top]], ROW_OF[stackCell[top]], Masks.valueOf(bit), top);
+            }
+            descend = propagator.assign(stackCell[top], bit);
+        }
+    }
+
+    /**
+     * Holds the logger so logging is only set up once a {@link Sudoku} is solved, keeping
+     * {@link BacktrackingSolver#solveCells(int[], SolveBudget)} quick to start in short lived processes
+     */
+    private static final class Log {
+        private static final Logger logger = LoggerFactory.getLogger(BacktrackingSolver.class);
+    }
+}
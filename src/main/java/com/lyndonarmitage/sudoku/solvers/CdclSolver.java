@@ -0,0 +1,193 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.BudgetedSolver;
+import com.lyndonarmitage.sudoku.Candidates;
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.ObservableSolver;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.SolverListener;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuException;
+import com.lyndonarmitage.sudoku.sat.SatSolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Solver that encodes a Sudoku as clauses and hands them to a conflict driven clause learning {@link SatSolver}.<br />
+ * There is one variable per cell and value, with clauses saying every cell has at least one and at most one value and
+ * every row, column and box holds each value exactly once. The givens are unit clauses.<br />
+ * This copes far better than {@link BacktrackingSolver} with puzzles designed to defeat depth first search and with
+ * larger grids, which can be solved through {@link CdclSolver#solveCells(int[], int, SolveBudget)}.<br />
+ * A {@link SolverListener} is told about every value placed or ruled out, and about every decision to try a value in
+ * a cell as a guess at the decision level's depth. Decisions that rule a value out and the jumps back after each
+ * conflict don't match a move on the grid so aren't reported, which means the events trace the solve but can't be
+ * replayed step by step the way those of {@link BacktrackingSolver} can.
+ */
+public class CdclSolver extends ObservableSolver implements BudgetedSolver {
+    private static final Logger logger = LoggerFactory.getLogger(CdclSolver.class);
+
+    private final int[] puzzle = new int[Masks.CELL_COUNT];
+    private long nodes;
+    private long conflicts;
+
+    @Override
+    public void solve(Sudoku sudoku) throws SudokuException {
+        SolveResult result = solve(sudoku, SolveBudget.UNLIMITED);
+        if (result.getStatus() == SolveStatus.UNSOLVABLE) {
+            logger.warn("Sudoku has no solution");
+        }
+    }
+
+    @Override
+    public SolveResult solve(Sudoku sudoku, SolveBudget budget) throws SudokuException {
+        long startTime = System.nanoTime();
+        sudoku.toCells(puzzle);
+        // fix the deadline now so the time spent encoding counts against the budget
+        SolveBudget fixed = budget.isTimed() ? budget.withDeadline(budget.deadlineFrom(startTime)) : budget;
+        SolveStatus status = solveCells(puzzle, 3, fixed);
+        sudoku.parseCells(puzzle);
+        long elapsed = System.nanoTime() - startTime;
+        logger.debug("{} after {} decisions and {} conflicts, took {}ns", status, nodes, conflicts, elapsed);
+        return new SolveResult(status, sudoku, Candidates.of(sudoku), nodes, elapsed);
+    }
+
+    /**
+     * Solve a square Sudoku of any size held as a flat array of cells.<br />
+     * The array is solved, left with only the values that hold in every solution if the budget runs out, or untouched
+     * if there is no solution. Decisions count as nodes against the budget.
+     *
+     * @param cells   <code>size * size</code> values between 0 and size (0 meaning empty) where size is
+     *                <code>boxSize * boxSize</code>, indexed by <code>y * size + x</code>
+     * @param boxSize the width of a box, 3 for a standard Sudoku, 4 for 16x16 and 5 for 25x25
+     * @param budget  the limits on the solve
+     * @return the status of the solve
+     */
+    public SolveStatus solveCells(int[] cells, int boxSize, SolveBudget budget) {
+        int size = boxSize * boxSize;
+        if (cells.length != size * size) {
+            throw new IllegalArgumentException("Expected " + (size * size) + " cells but got " + cells.length);
+        }
+        nodes = 0;
+        conflicts = 0;
+        SatSolver sat = encode(cells, boxSize, listener);
+        if (sat == null) {
+            return SolveStatus.UNSOLVABLE;
+        }
+        SolveStatus status = sat.solve(budget);
+        nodes = sat.getDecisions();
+        conflicts = sat.getConflicts();
+        if (status != SolveStatus.UNSOLVABLE) {
+            for (int cell = 0; cell < cells.length; cell++) {
+                for (int value = 1; value <= size; value++) {
+                    if (sat.isTrue(cell * size + value - 1)) {
+                        cells[cell] = value;
+                        break;
+                    }
+                }
+            }
+        }
+        return status;
+    }
+
+    /**
+     * @return the number of decisions made by the last solve
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the number of conflicts (and so learnt clauses) in the last solve
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * @return a SAT solver loaded with the rules and givens, or null if they are already contradictory
+     */
+    private static SatSolver encode(int[] cells, int boxSize, SolverListener listener) {
+        int size = boxSize * boxSize;
+        SatSolver sat = new SatSolver(cells.length * size);
+        if (listener != null) {
+            sat.setListener((literal, level, decision) -> {
+                int variable = literal >> 1;
+                int cell = variable / size;
+                int x = cell % size;
+                int y = cell / size;
+                int value = variable % size + 1;
+                if ((literal & 1) != 0) {
+                    listener.eliminated(x, y, value);
+                    return;
+                }
+                if (decision) {
+                    listener.branched(x, y, value, level - 1);
+                }
+                listener.placed(x, y, value);
+            });
+        }
+        for (int cell = 0; cell < cells.length; cell++) {
+            int value = cells[cell];
+            if (value < 0 || value > size) {
+                return null;
+            }
+            if (value != 0 && !sat.addClause(SatSolver.literal(cell * size + value - 1, true))) {
+                return null;
+            }
+        }
+        int[] group = new int[size];
+        for (int cell = 0; cell < cells.length; cell++) {
+            for (int value = 0; value < size; value++) {
+                group[value] = cell * size + value;
+            }
+            if (!exactlyOne(sat, group)) {
+                return null;
+            }
+        }
+        for (int unit = 0; unit < size; unit++) {
+            int boxX = (unit % boxSize) * boxSize;
+            int boxY = (unit / boxSize) * boxSize;
+            for (int value = 0; value < size; value++) {
+                for (int i = 0; i < size; i++) {
+                    group[i] = (unit * size + i) * size + value;
+                }
+                if (!exactlyOne(sat, group)) {
+                    return null;
+                }
+                for (int i = 0; i < size; i++) {
+                    group[i] = (i * size + unit) * size + value;
+                }
+                if (!exactlyOne(sat, group)) {
+                    return null;
+                }
+                for (int i = 0; i < size; i++) {
+                    group[i] = ((boxY + i / boxSize) * size + boxX + i % boxSize) * size + value;
+                }
+                if (!exactlyOne(sat, group)) {
+                    return null;
+                }
+            }
+        }
+        return sat;
+    }
+
+    private static boolean exactlyOne(SatSolver sat, int[] variables) {
+        int[] atLeastOne = new int[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            atLeastOne[i] = SatSolver.literal(variables[i], true);
+        }
+        if (!sat.addClause(atLeastOne)) {
+            return false;
+        }
+        for (int i = 0; i < variables.length; i++) {
+            for (int j = i + 1; j < variables.length; j++) {
+                if (!sat.addClause(SatSolver.literal(variables[i], false), SatSolver.literal(variables[j], false))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.CandidateState;
+import com.lyndonarmitage.sudoku.Candidates;
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuException;
+import com.lyndonarmitage.sudoku.Units;
+
+/**
+ * A single logical deduction found by a {@link HintFinder}.<br />
+ * A hint either places a value in a cell or eliminates one or more candidate values from a set of cells.
+ */
+public class Hint {
+
+    private final Technique technique;
+    private final int cell;
+    private final int value;
+    private final int[] cells;
+    private final int eliminated;
+
+    private Hint(Technique technique, int cell, int value, int[] cells, int eliminated) {
+        this.technique = technique;
+        this.cell = cell;
+        this.value = value;
+        this.cells = cells;
+        this.eliminated = eliminated;
+    }
+
+    static Hint placement(Technique technique, int cell, int value) {
+        return new Hint(technique, cell, value, new int[]{cell}, 0);
+    }
+
+    static Hint elimination(Technique technique, int[] cells, int eliminated) {
+        return new Hint(technique, -1, 0, cells, eliminated);
+    }
+
+    /**
+     * @return the technique used to find this hint
+     */
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    /**
+     * @return true if this hint places a value, false if it eliminates candidates
+     */
+    public boolean isPlacement() {
+        return cell >= 0;
+    }
+
+    /**
+     * @return the absolute x of the cell a value is placed in, or -1 for eliminations
+     */
+    public int getX() {
+        return cell >= 0 ? Masks.x(cell) : -1;
+    }
+
+    /**
+     * @return the absolute y of the cell a value is placed in, or -1 for eliminations
+     */
+    public int getY() {
+        return cell >= 0 ? Masks.y(cell) : -1;
+    }
+
+    /**
+     * @return the value placed, or 0 for eliminations
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * @return the {@link Masks#index(int, int) indexes} of the cells affected by this hint
+     */
+    public int[] getCells() {
+        return cells.clone();
+    }
+
+    /**
+     * @return the mask of the candidates removed from each affected cell, 0 for placements
+     */
+    public int getEliminated() {
+        return eliminated;
+    }
+
+    /**
+     * Applies this hint to a Sudoku and its candidates. Placements also remove the value from the candidates of the
+     * cell's peers.
+     *
+     * @param sudoku     The Sudoku the hint was found for
+     * @param candidates The candidates the hint was found with
+     * @throws SudokuException
+     */
+    public void apply(Sudoku sudoku, Candidates candidates) throws SudokuException {
+        int[] masks = candidates.getMasks();
+        if (isPlacement()) {
+            int bit = Masks.bit(value);
+            sudoku.setAbsolute(Masks.x(cell), Masks.y(cell), value);
+            masks[cell] = bit;
+            for (int peer : Units.PEERS[cell]) {
+                masks[peer] &= ~bit;
+            }
+        } else {
+            for (int affected : cells) {
+                masks[affected] &= ~eliminated;
+            }
+        }
+    }
+
+    /**
+     * Applies this hint through a live candidate state, keeping it in step with its Sudoku.
+     *
+     * @param state The live candidates the hint was found with
+     * @throws SudokuException
+     */
+    public void apply(CandidateState state) throws SudokuException {
+        if (isPlacement()) {
+            state.place(Masks.x(cell), Masks.y(cell), value);
+        } else {
+            for (int affected : cells) {
+                for (int candidate = 1; candidate <= Sudoku.GRID_SIZE; candidate++) {
+                    if ((eliminated & Masks.bit(candidate)) != 0) {
+                        state.eliminate(Masks.x(affected), Masks.y(affected), candidate);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(technique.toString()).append(": ");
+        if (isPlacement()) {
+            builder.append("put ").append(value).append(" at ").append(getX()).append(',').append(getY());
+        } else {
+            builder.append("remove ");
+            for (int candidate = 1; candidate <= Sudoku.GRID_SIZE; candidate++) {
+                if ((eliminated & Masks.bit(candidate)) != 0) {
+                    builder.append(candidate);
+                }
+            }
+            builder.append(" from");
+            for (int affected : cells) {
+                builder.append(' ').append(Masks.x(affected)).append(',').append(Masks.y(affected));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.CandidateState;
+import com.lyndonarmitage.sudoku.Candidates;
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.Units;
+
+import java.util.Arrays;
+
+import static com.lyndonarmitage.sudoku.Units.BOX_OF;
+import static com.lyndonarmitage.sudoku.Units.COLUMN_OF;
+import static com.lyndonarmitage.sudoku.Units.ROW_OF;
+
+/**
+ * Finds the next logical step in a Sudoku without solving it.<br />
+ * Each {@link Technique} is tried in order, cheapest first, and the first deduction found is returned. Callers that
+ * keep the {@link Candidates} between calls (applying each hint with {@link Hint#apply(Sudoku, Candidates)}), or use
+ * a {@link CandidateState}, avoid having to work them out again every time.<br />
+ * Instances reuse a small scratch buffer so are not thread safe.
+ */
+public class HintFinder {
+
+    private static final int BOX_UNITS = Sudoku.GRID_SIZE * 2;
+
+    private final int[] scratch = new int[Masks.CELL_COUNT];
+
+    /**
+     * Find the next logical step for a Sudoku, working out its candidates from scratch.
+     *
+     * @param sudoku The Sudoku to find a hint for
+     * @return The cheapest hint available, or null if none of the techniques apply
+     */
+    public Hint next(Sudoku sudoku) {
+        return next(sudoku, Candidates.of(sudoku));
+    }
+
+    /**
+     * Find the next logical step for a Sudoku using its live candidate state.
+     *
+     * @param state The live candidates of the Sudoku
+     * @return The cheapest hint available, or null if none of the techniques apply
+     */
+    public Hint next(CandidateState state) {
+        return next(state.getSudoku(), state.getCandidates());
+    }
+
+    /**
+     * Find the next logical step for a Sudoku using already known candidates.
+     *
+     * @param sudoku     The Sudoku to find a hint for
+     * @param candidates The current candidates of the Sudoku, these may have had eliminations applied
+     * @return The cheapest hint available, or null if none of the techniques apply
+     */
+    public Hint next(Sudoku sudoku, Candidates candidates) {
+        int[][] grid = sudoku.getGrid();
+        int[] masks = candidates.getMasks();
+        Hint hint = nakedSingle(grid, masks);
+        if (hint == null) {
+            hint = hiddenSingle(grid, masks);
+        }
+        if (hint == null) {
+            hint = pointing(grid, masks);
+        }
+        if (hint == null) {
+            hint = claiming(grid, masks);
+        }
+        if (hint == null) {
+            hint = nakedPair(grid, masks);
+        }
+        return hint;
+    }
+
+    private Hint nakedSingle(int[][] grid, int[] masks) {
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            if (grid[COLUMN_OF[i]][ROW_OF[i]] == 0 && Masks.isSingle(masks[i])) {
+                return Hint.placement(Technique.NAKED_SINGLE, i, Masks.valueOf(masks[i]));
+            }
+        }
+        return null;
+    }
+
+    private Hint hiddenSingle(int[][] grid, int[] masks) {
+        for (int[] unit : Units.CELLS) {
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int cell : unit) {
+                int value = grid[COLUMN_OF[cell]][ROW_OF[cell]];
+                if (value != 0) {
+                    placed |= Masks.bit(value);
+                } else {
+                    twice |= once & masks[cell];
+                    once |= masks[cell];
+                }
+            }
+            int hidden = once & ~twice & ~placed;
+            if (hidden != 0) {
+                int bit = hidden & -hidden;
+                for (int cell : unit) {
+                    if (grid[COLUMN_OF[cell]][ROW_OF[cell]] == 0 && (masks[cell] & bit) != 0) {
+                        return Hint.placement(Technique.HIDDEN_SINGLE, cell, Masks.valueOf(bit));
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Hint pointing(int[][] grid, int[] masks) {
+        for (int box = 0; box < Sudoku.GRID_SIZE; box++) {
+            int[] unit = Units.CELLS[BOX_UNITS + box];
+            for (int bit = 1; bit <= Masks.ALL; bit <<= 1) {
+                int rows = 0;
+                int columns = 0;
+                for (int cell : unit) {
+                    if (grid[COLUMN_OF[cell]][ROW_OF[cell]] == 0 && (masks[cell] & bit) != 0) {
+                        rows |= 1 << ROW_OF[cell];
+                        columns |= 1 << COLUMN_OF[cell];
+                    }
+                }
+                if (Masks.isSingle(rows)) {
+                    int unitIndex = Integer.numberOfTrailingZeros(rows);
+                    Hint hint = eliminate(Technique.POINTING, grid, masks, Units.CELLS[unitIndex], box, -1, bit);
+                    if (hint != null) {
+                        return hint;
+                    }
+                }
+                if (Masks.isSingle(columns)) {
+                    int unitIndex = Sudoku.GRID_SIZE + Integer.numberOfTrailingZeros(columns);
+                    Hint hint = eliminate(Technique.POINTING, grid, masks, Units.CELLS[unitIndex], box, -1, bit);
+                    if (hint != null) {
+                        return hint;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Hint claiming(int[][] grid, int[] masks) {
+        for (int line = 0; line < BOX_UNITS; line++) {
+            int[] unit = Units.CELLS[line];
+            for (int bit = 1; bit <= Masks.ALL; bit <<= 1) {
+                int boxes = 0;
+                for (int cell : unit) {
+                    if (grid[COLUMN_OF[cell]][ROW_OF[cell]] == 0 && (masks[cell] & bit) != 0) {
+                        boxes |= 1 << BOX_OF[cell];
+                    }
+                }
+                if (Masks.isSingle(boxes)) {
+                    int box = Integer.numberOfTrailingZeros(boxes);
+                    Hint hint = eliminate(Technique.CLAIMING, grid, masks, Units.CELLS[BOX_UNITS + box], -1, line, bit);
+                    if (hint != null) {
+                        return hint;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Hint nakedPair(int[][] grid, int[] masks) {
+        for (int[] unit : Units.CELLS) {
+            for (int first = 0; first < unit.length; first++) {
+                int pair = masks[unit[first]];
+                if (grid[COLUMN_OF[unit[first]]][ROW_OF[unit[first]]] != 0 || Masks.count(pair) != 2) {
+                    continue;
+                }
+                for (int second = first + 1; second < unit.length; second++) {
+                    if (masks[unit[second]] == pair && grid[COLUMN_OF[unit[second]]][ROW_OF[unit[second]]] == 0) {
+                        int count = 0;
+                        for (int cell : unit) {
+                            if (cell != unit[first] && cell != unit[second]
+                                    && grid[COLUMN_OF[cell]][ROW_OF[cell]] == 0 && (masks[cell] & pair) != 0) {
+                                scratch[count++] = cell;
+                            }
+                        }
+                        if (count > 0) {
+                            return Hint.elimination(Technique.NAKED_PAIR, Arrays.copyOf(scratch, count), pair);
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds an elimination hint removing a value from the empty cells of a unit, skipping those in the given box or
+     * line
+     *
+     * @return the hint, or null if nothing would be eliminated
+     */
+    private Hint eliminate(Technique technique, int[][] grid, int[] masks, int[] unit, int skipBox, int skipLine, int bit) {
+        int count = 0;
+        for (int cell : unit) {
+            if (BOX_OF[cell] == skipBox || ROW_OF[cell] == skipLine || Sudoku.GRID_SIZE + COLUMN_OF[cell] == skipLine) {
+                continue;
+            }
+            if (grid[COLUMN_OF[cell]][ROW_OF[cell]] == 0 && (masks[cell] & bit) != 0) {
+                scratch[count++] = cell;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        return Hint.elimination(technique, Arrays.copyOf(scratch, count), bit);
+    }
+}
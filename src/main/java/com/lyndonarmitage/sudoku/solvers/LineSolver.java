@@ -0,0 +1,61 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.BudgetedSolver;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuException;
+
+/**
+ * Solves Sudokus given in the single line format (see {@link Sudoku#parseLine(CharSequence)}) and gives back a single
+ * line answer:
+ * <ul>
+ * <li>the solution, if it was solved</li>
+ * <li>the partial grid followed by a space and the {@link SolveStatus} if it wasn't</li>
+ * <li><code>ERROR</code> followed by a message if the line couldn't be parsed</li>
+ * </ul>
+ * The same Sudoku and solver are reused for every line so instances are not thread safe.
+ */
+public class LineSolver {
+
+    private final BudgetedSolver solver;
+    private final SolveBudget budget;
+    private final Sudoku sudoku = new Sudoku();
+    private SolveStatus lastStatus;
+
+    /**
+     * @param solver The solver to use
+     * @param budget The budget to give each Sudoku
+     */
+    public LineSolver(BudgetedSolver solver, SolveBudget budget) {
+        this.solver = solver;
+        this.budget = budget;
+    }
+
+    /**
+     * @param line A Sudoku in the single line format
+     * @return The answer line
+     */
+    public String solve(String line) {
+        lastStatus = null;
+        try {
+            sudoku.parseLine(line);
+            SolveResult result = solver.solve(sudoku, budget);
+            lastStatus = result.getStatus();
+            if (lastStatus == SolveStatus.SOLVED) {
+                return sudoku.toLine();
+            }
+            return sudoku.toLine() + ' ' + lastStatus;
+        } catch (SudokuException e) {
+            return "ERROR " + e.getMessage().split("\n", 2)[0];
+        }
+    }
+
+    /**
+     * @return The status of the last line solved, or null if it couldn't be parsed
+     */
+    public SolveStatus getLastStatus() {
+        return lastStatus;
+    }
+}
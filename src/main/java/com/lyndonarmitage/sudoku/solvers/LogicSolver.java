@@ -1,8 +1,9 @@
 package com.lyndonarmitage.sudoku.solvers;
 
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.ObservableSolver;
 import com.lyndonarmitage.sudoku.Sudoku;
 import com.lyndonarmitage.sudoku.SudokuException;
-import com.lyndonarmitage.sudoku.SudokuSolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,9 +16,14 @@ import java.util.Set;
 /**
  * Created by Lyndon on 09/05/2015.
  */
-public class LogicSolver implements SudokuSolver {
+public class LogicSolver extends ObservableSolver {
     private static final Logger logger = LoggerFactory.getLogger(LogicSolver.class);
+    private static final String BASIC = "row, column and box elimination";
+    private static final String CANDIDATE_LINES = "candidate lines";
     private PencilMark[][] pencilMarks;
+    // reused between boxes to avoid allocating new arrays in every sweep
+    private final int[][] boxBuffer = new int[Sudoku.BOX_SIZE][Sudoku.BOX_SIZE];
+    private final PencilMark[][] boxPencilMarkBuffer = new PencilMark[Sudoku.BOX_SIZE][Sudoku.BOX_SIZE];
 
     public static void main(String[] args) throws IOException, SudokuException {
         File file = null;
@@ -62,12 +68,25 @@ public class LogicSolver implements SudokuSolver {
         do {
             lastChanges = 0;
             // perform basic logical steps
+            if (listener != null) {
+                listener.techniqueStarted(BASIC);
+            }
             lastChanges = runBasicLogicSolution(sudoku, lastChanges);
+            if (listener != null) {
+                listener.techniqueFinished(BASIC, lastChanges);
+            }
             if (sudoku.getHints() >= 81) {
                 // sudoku has been solved
                 break;
             }
+            if (listener != null) {
+                listener.techniqueStarted(CANDIDATE_LINES);
+            }
+            int before = lastChanges;
             lastChanges = candidateLines(sudoku, lastChanges);
+            if (listener != null) {
+                listener.techniqueFinished(CANDIDATE_LINES, lastChanges - before);
+            }
 
 
         } while (lastChanges > 0);
@@ -79,37 +98,27 @@ public class LogicSolver implements SudokuSolver {
 
     private int runBasicLogicSolution(Sudoku sudoku, int lastChanges) throws SudokuException {
         for (int x = 0; x < 9; x++) {
-            int[] column = sudoku.getColumn(x);
+            int columnMask = sudoku.getColumnMask(x);
             for (int y = 0; y < 9; y++) {
                 PencilMark mark = pencilMarks[x][y];
                 if (sudoku.getAbsolute(x, y) == 0) {
                     if (mark.getRealValue() > 0) {
-                        sudoku.setAbsolute(x, y, mark.getRealValue());
+                        place(sudoku, x, y, mark.getRealValue());
                         lastChanges++;
                     } else {
-                        int[] row = sudoku.getRow(y);
-
                         // remove all the ones already present
-                        for (int i = 0; i < 9; i++) {
-                            mark.remove(row[i]);
-                            mark.remove(column[i]);
-                        }
+                        eliminate(mark, x, y, columnMask | sudoku.getRowMask(y));
                         if (mark.getRealValue() > 0) {
                             // we have worked out a value from the column and row alone
-                            sudoku.setAbsolute(x, y, mark.getRealValue());
+                            place(sudoku, x, y, mark.getRealValue());
                             lastChanges++;
                         } else {
 
                             // convert x, y to get boxX, boxY and check the box it is in to limit possibilities further
-                            int[][] box = sudoku.getBox(x / Sudoku.BOX_SIZE, y / Sudoku.BOX_SIZE);
-                            for (int xPos = 0; xPos < Sudoku.BOX_SIZE; xPos++) {
-                                for (int yPos = 0; yPos < Sudoku.BOX_SIZE; yPos++) {
-                                    mark.remove(box[xPos][yPos]);
-                                }
-                            }
+                            eliminate(mark, x, y, sudoku.getBoxMask(x / Sudoku.BOX_SIZE, y / Sudoku.BOX_SIZE));
                             if (mark.getRealValue() > 0) {
                                 // we have worked out a value by covering the column, row, and box
-                                sudoku.setAbsolute(x, y, mark.getRealValue());
+                                place(sudoku, x, y, mark.getRealValue());
                                 lastChanges++;
                             }
                         }
@@ -124,12 +133,30 @@ public class LogicSolver implements SudokuSolver {
         return lastChanges;
     }
 
+    private void place(Sudoku sudoku, int x, int y, int value) throws SudokuException {
+        sudoku.setAbsolute(x, y, value);
+        if (listener != null) {
+            listener.placed(x, y, value);
+        }
+    }
+
+    private void eliminate(PencilMark mark, int x, int y, int mask) {
+        int removed = mark.removeAll(mask);
+        if (listener != null) {
+            while (removed != 0) {
+                int bit = removed & -removed;
+                removed ^= bit;
+                listener.eliminated(x, y, Masks.valueOf(bit));
+            }
+        }
+    }
+
     private int candidateLines(Sudoku sudoku, int lastChanges) throws SudokuException {
         // see https://www.sudokuoftheday.com/techniques/candidate-lines/ for details
         for (int boxX = 0; boxX < Sudoku.BOX_COUNT; boxX++) {
             for (int boxY = 0; boxY < Sudoku.BOX_COUNT; boxY++) {
-                int[][] box = sudoku.getBox(boxX, boxY);
-                PencilMark[][] boxPencilMarks = new PencilMark[Sudoku.BOX_SIZE][Sudoku.BOX_SIZE];
+                int[][] box = sudoku.getBox(boxX, boxY, boxBuffer);
+                PencilMark[][] boxPencilMarks = boxPencilMarkBuffer;
                 for (int relX = 0; relX < Sudoku.BOX_SIZE; relX++) {
                     for (int relY = 0; relY < Sudoku.BOX_SIZE; relY++) {
                         int x = Sudoku.convertRelativeToAbsolute(boxX, relX);
@@ -195,6 +222,22 @@ public class LogicSolver implements SudokuSolver {
             couldBes.remove(value);
         }
 
+        /**
+         * @param mask the values to remove, value v being bit v - 1 as in {@link Masks#bit(int)}
+         * @return a mask of the values that were actually removed
+         */
+        public int removeAll(int mask) {
+            int removed = 0;
+            while (mask != 0) {
+                int bit = mask & -mask;
+                mask ^= bit;
+                if (couldBes.remove(Masks.valueOf(bit))) {
+                    removed |= bit;
+                }
+            }
+            return removed;
+        }
+
         public int size() {
             return couldBes.size();
         }
@@ -0,0 +1,314 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.BudgetedSolver;
+import com.lyndonarmitage.sudoku.Candidates;
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.ObservableSolver;
+import com.lyndonarmitage.sudoku.Propagator;
+import com.lyndonarmitage.sudoku.Regions;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.SolverListener;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.lyndonarmitage.sudoku.Units.COLUMN_OF;
+import static com.lyndonarmitage.sudoku.Units.ROW_OF;
+
+/**
+ * Depth first search that spreads the search tree of a single puzzle over a {@link ForkJoinPool}.<br />
+ * The top levels of the tree (down to the split depth) become one fork/join task per branch, so idle threads steal
+ * whole subtrees from busy ones. Below the split depth each task searches on its own with a {@link Propagator} the
+ * same way {@link BacktrackingSolver} does.<br />
+ * When solving, every task stops as soon as any of them finds a solution or the budget runs out. In counting mode
+ * ({@link ParallelSolver#countSolutions(Sudoku, long)}) the tasks share one counter and stop once the limit is
+ * reached.<br />
+ * This is only worth it for puzzles that take a long time to solve; most puzzles are solved faster by a single
+ * {@link BacktrackingSolver} than it takes to start the tasks. Instances hold no state between solves, apart from the
+ * listener, so can be shared between threads.<br />
+ * A {@link SolverListener} is told about what propagating the givens places and rules out, every guess made by any
+ * task (called from the pool's threads at the same time, so the listener must be thread safe) and finally about each
+ * value the search placed. The tasks' own propagation and backtracking aren't reported, and nothing is reported when
+ * counting solutions.
+ */
+public class ParallelSolver extends ObservableSolver implements BudgetedSolver {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelSolver.class);
+
+    public static final int DEFAULT_SPLIT_DEPTH = 6;
+    // how many nodes a task visits between checking whether it should stop
+    private static final int CHECK_MASK = 0x3F;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final Regions regions;
+
+    /**
+     * Create a solver using the common pool and the default split depth
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * @param pool       the pool to run the search in
+     * @param splitDepth how many levels of the search tree to split into separate tasks, 0 searches in a single task
+     */
+    public ParallelSolver(ForkJoinPool pool, int splitDepth) {
+        this(pool, splitDepth, Regions.STANDARD);
+    }
+
+    /**
+     * @param pool       the pool to run the search in
+     * @param splitDepth how many levels of the search tree to split into separate tasks, 0 searches in a single task
+     * @param regions    the units of the variant to solve, for example {@link Regions#diagonal()}
+     */
+    public ParallelSolver(ForkJoinPool pool, int splitDepth, Regions regions) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("splitDepth must not be negative, was " + splitDepth);
+        }
+        this.pool = pool;
+        this.regions = regions;
+        this.splitDepth = splitDepth;
+    }
+
+    @Override
+    public void solve(Sudoku sudoku) throws SudokuException {
+        SolveResult result = solve(sudoku, SolveBudget.UNLIMITED);
+        if (result.getStatus() == SolveStatus.UNSOLVABLE) {
+            logger.warn("Sudoku has no solution");
+        }
+    }
+
+    @Override
+    public SolveResult solve(Sudoku sudoku, SolveBudget budget) throws SudokuException {
+        long startTime = System.nanoTime();
+        int[] cells = sudoku.toCells(new int[Masks.CELL_COUNT]);
+        SolverListener listener = this.listener;
+        Propagator propagator = new Propagator(regions);
+        propagator.setListener(listener);
+        Search search = new Search(budget, startTime, 1, false, listener);
+        SolveStatus status;
+        if (!propagator.load(cells)) {
+            status = SolveStatus.UNSOLVABLE;
+        } else {
+            // the propagated values are always correct so can be kept even if the search doesn't finish
+            propagator.fill(cells);
+            pool.invoke(new SearchTask(search, propagator.getMasks().clone(), 0));
+            int[] solution = search.solution.get();
+            if (solution != null) {
+                if (listener != null) {
+                    for (int i = 0; i < Masks.CELL_COUNT; i++) {
+                        if (cells[i] == 0) {
+                            listener.placed(COLUMN_OF[i], ROW_OF[i], solution[i]);
+                        }
+                    }
+                }
+                System.arraycopy(solution, 0, cells, 0, Masks.CELL_COUNT);
+                status = SolveStatus.SOLVED;
+            } else {
+                status = search.exhausted ? SolveStatus.BUDGET_EXHAUSTED : SolveStatus.UNSOLVABLE;
+            }
+            if (status != SolveStatus.UNSOLVABLE) {
+                sudoku.parseCells(cells);
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+        logger.debug("{} after {} nodes, took {}ns", status, search.nodes.get(), elapsed);
+        return new SolveResult(status, sudoku, Candidates.of(sudoku), search.nodes.get(), elapsed);
+    }
+
+    /**
+     * Count the solutions of a Sudoku, searching the whole tree in parallel. The Sudoku is not changed.
+     *
+     * @param sudoku the Sudoku to count the solutions of
+     * @param limit  stop counting after this many solutions, 2 is enough to check a puzzle has a unique solution
+     * @return the number of solutions, at most limit
+     */
+    public long countSolutions(Sudoku sudoku, long limit) {
+        if (limit <= 0) {
+            return 0;
+        }
+        Propagator propagator = new Propagator(regions);
+        if (!propagator.load(sudoku.toCells(new int[Masks.CELL_COUNT]))) {
+            return 0;
+        }
+        Search search = new Search(SolveBudget.UNLIMITED, System.nanoTime(), limit, true, null);
+        pool.invoke(new SearchTask(search, propagator.getMasks().clone(), 0));
+        return Math.min(search.solutions.get(), limit);
+    }
+
+    /**
+     * State shared by all the tasks of one search
+     */
+    private static final class Search {
+        final long maxNodes;
+        final boolean timed;
+        final long deadline;
+        final long limit;
+        final boolean counting;
+        final SolverListener listener;
+        final AtomicLong nodes = new AtomicLong();
+        final AtomicLong solutions = new AtomicLong();
+        final AtomicReference<int[]> solution = new AtomicReference<>();
+        volatile boolean stop;
+        volatile boolean exhausted;
+
+        Search(SolveBudget budget, long startTime, long limit, boolean counting, SolverListener listener) {
+            this.maxNodes = budget.getMaxNodes();
+            this.timed = budget.isTimed();
+            this.deadline = budget.deadlineFrom(startTime);
+            this.limit = limit;
+            this.counting = counting;
+            this.listener = listener;
+        }
+
+        void found(Propagator propagator) {
+            if (counting) {
+                if (solutions.incrementAndGet() >= limit) {
+                    stop = true;
+                }
+            } else {
+                int[] cells = new int[Masks.CELL_COUNT];
+                propagator.fill(cells);
+                solution.compareAndSet(null, cells);
+                stop = true;
+            }
+        }
+
+        /**
+         * Adds the nodes visited by a task since it last reported and checks the budget
+         *
+         * @return true if the search should stop
+         */
+        boolean report(long visited) {
+            long total = nodes.addAndGet(visited);
+            if (total >= maxNodes || (timed && System.nanoTime() - deadline >= 0)) {
+                exhausted = true;
+                stop = true;
+            }
+            return stop;
+        }
+
+        /**
+         * Adds the nodes visited by a task that has finished its subtree. The subtree has been searched completely so
+         * the budget isn't checked, even if these nodes take the total up to it.
+         */
+        void finished(long visited) {
+            nodes.addAndGet(visited);
+        }
+    }
+
+    private final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int[] masks;
+        private final int depth;
+
+        SearchTask(Search search, int[] masks, int depth) {
+            this.search = search;
+            this.masks = masks;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.stop) {
+                return;
+            }
+            Propagator propagator = new Propagator(regions);
+            propagator.restore(masks);
+            if (depth < splitDepth) {
+                split(propagator);
+            } else {
+                searchAlone(propagator);
+            }
+        }
+
+        private void split(Propagator propagator) {
+            int cell = propagator.chooseCell();
+            if (cell == Propagator.COMPLETE) {
+                search.found(propagator);
+                return;
+            }
+            if (search.report(1)) {
+                return;
+            }
+            List<SearchTask> tasks = new ArrayList<>(Sudoku.GRID_SIZE);
+            int remaining = propagator.getMask(cell);
+            int mark = propagator.mark();
+            while (remaining != 0) {
+                int bit = remaining & -remaining;
+                remaining ^= bit;
+                if (search.listener != null) {
+                    search.listener.branched(COLUMN_OF[cell], ROW_OF[cell], Masks.valueOf(bit), depth);
+                }
+                if (propagator.assign(cell, bit)) {
+                    tasks.add(new SearchTask(search, propagator.getMasks().clone(), depth + 1));
+                }
+                propagator.undo(mark);
+            }
+            invokeAll(tasks);
+        }
+
+        private void searchAlone(Propagator propagator) {
+            int[] stackCell = new int[Masks.CELL_COUNT];
+            int[] stackRemaining = new int[Masks.CELL_COUNT];
+            int[] stackMark = new int[Masks.CELL_COUNT];
+            long visited = 0;
+            int depth = 0;
+            boolean descend = true;
+            while (true) {
+                if (descend) {
+                    int cell = propagator.chooseCell();
+                    if (cell == Propagator.COMPLETE) {
+                        search.found(propagator);
+                        if (search.stop) {
+                            break;
+                        }
+                    } else {
+                        if ((++visited & CHECK_MASK) == 0) {
+                            if (search.report(visited)) {
+                                return;
+                            }
+                            visited = 0;
+                        }
+                        stackCell[depth] = cell;
+                        stackRemaining[depth] = propagator.getMask(cell);
+                        stackMark[depth] = propagator.mark();
+                        depth++;
+                    }
+                }
+                if (depth == 0) {
+                    break;
+                }
+                int top = depth - 1;
+                propagator.undo(stackMark[top]);
+                int remaining = stackRemaining[top];
+                if (remaining == 0) {
+                    depth--;
+                    descend = false;
+                    continue;
+                }
+                int bit = remaining & -remaining;
+                stackRemaining[top] = remaining ^ bit;
+                if (search.listener != null) {
+                    search.listener.branched(COLUMN_OF[stackCell[top]], ROW_OF[stackCell[top]], Masks.valueOf(bit),
+                            this.depth + top);
+                }
+                descend = propagator.assign(stackCell[top], bit);
+            }
+            search.finished(visited);
+        }
+    }
+}
@@ -1,22 +1,22 @@
 package com.lyndonarmitage.sudoku.solvers;
 
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.ObservableSolver;
 import com.lyndonarmitage.sudoku.Sudoku;
 import com.lyndonarmitage.sudoku.SudokuException;
-import com.lyndonarmitage.sudoku.SudokuSolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Created by Lyndon on 09/05/2015.
  */
-public class SimpleLogicSolver implements SudokuSolver {
+public class SimpleLogicSolver extends ObservableSolver {
     private static final Logger logger = LoggerFactory.getLogger(SimpleLogicSolver.class);
+    private static final String SWEEP = "single candidate sweep";
 
     public static void main(String[] args) throws IOException, SudokuException {
         File file = null;
@@ -48,38 +48,34 @@ public class SimpleLogicSolver implements SudokuSolver {
         long startTime = System.currentTimeMillis();
         do {
             lastChanges = 0;
+            if (listener != null) {
+                listener.techniqueStarted(SWEEP);
+            }
             for (int x = 0; x < 9; x++) {
-                int[] column = sudoku.getColumn(x);
+                int columnMask = sudoku.getColumnMask(x);
                 for (int y = 0; y < 9; y++) {
-                    int[] row = sudoku.getRow(y);
-                    Set<Integer> present = new HashSet<>(9);
-                    for (int i = 0; i < 9; i++) {
-                        if (row[i] != 0) {
-                            present.add(row[i]);
-                        }
-                        if (column[i] != 0) {
-                            present.add(column[i]);
-                        }
-                    }
-                    // convert x, y to get boxX, boxY
-                    int[][] box = sudoku.getBox(x / Sudoku.BOX_SIZE, y / Sudoku.BOX_SIZE);
-                    for (int xPos = 0; xPos < Sudoku.BOX_SIZE; xPos++) {
-                        for (int yPos = 0; yPos < Sudoku.BOX_SIZE; yPos++) {
-                            if (box[xPos][yPos] != 0) {
-                                present.add(box[xPos][yPos]);
-                            }
-                        }
-                    }
-                    if (present.size() == 8) {
-                        int value = 45 - present.stream().mapToInt(Integer::intValue).sum();
-                        if (!present.contains(value) && sudoku.canPutAbsolute(x, y, value)) {
+                    // values present in the row, column and box, worked out without copying any of them
+                    int present = columnMask | sudoku.getRowMask(y)
+                            | sudoku.getBoxMask(x / Sudoku.BOX_SIZE, y / Sudoku.BOX_SIZE);
+                    if (Masks.count(present) == 8) {
+                        int value = Masks.valueOf(Masks.ALL & ~present);
+                        if (sudoku.canPutAbsolute(x, y, value)) {
                             lastChanges++;
                             sudoku.setAbsolute(x, y, value);
-                            logger.debug("Setting value at {},{} to {}", x, y, value);
+                            columnMask |= Masks.bit(value);
+                            if (listener != null) {
+                                listener.placed(x, y, value);
+                            }
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Setting value at {},{} to {}", x, y, value);
+                            }
                         }
                     }
                 }
             }
+            if (listener != null) {
+                listener.techniqueFinished(SWEEP, lastChanges);
+            }
         } while (lastChanges > 0);
         if (sudoku.getHints() < 81) {
             logger.warn("Couldn't completely finish Sudoku, {} incomplete sections.", (81 - sudoku.getHints()));
@@ -0,0 +1,246 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Propagator;
+import com.lyndonarmitage.sudoku.Regions;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.Sudoku;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Counts every solution of a Sudoku with a depth first search that can be paused, saved to a checkpoint and carried on
+ * later, possibly in another process.<br />
+ * {@link SolutionCounter#run(SolveBudget)} searches until it finishes or the budget runs out, and can be called again
+ * to carry on where it stopped. Between runs {@link SolutionCounter#checkpoint(DataOutput)} writes the search to a
+ * compact binary form (the puzzle, the search stack and the counters) which
+ * {@link SolutionCounter#resume(DataInput)} reads back. The candidates aren't saved, they are rebuilt on resume by
+ * replaying the guesses on the stack, so a resumed count visits exactly the same nodes and finds the same total as one
+ * that was never stopped.<br />
+ * Instances are not thread safe.
+ */
+public class SolutionCounter {
+
+    // "SDCK" followed by the format version
+    private static final int MAGIC = 0x5344434B;
+    private static final int VERSION = 1;
+    private static final int CLOCK_CHECK_MASK = 0xFF;
+
+    private final Regions regions;
+    private final Propagator propagator;
+    private final int[] puzzle = new int[Masks.CELL_COUNT];
+    private final int[] stackCell = new int[Masks.CELL_COUNT];
+    private final int[] stackRemaining = new int[Masks.CELL_COUNT];
+    private final int[] stackChosen = new int[Masks.CELL_COUNT];
+    private final int[] stackMark = new int[Masks.CELL_COUNT];
+    private int depth;
+    private boolean descend;
+    private boolean finished = true;
+    private long limit;
+    private long solutions;
+    private long nodes;
+
+    /**
+     * Create a counter for standard Sudokus
+     */
+    public SolutionCounter() {
+        this(Regions.STANDARD);
+    }
+
+    /**
+     * @param regions the units of the variant to count, checkpoints can only be resumed with the same regions
+     */
+    public SolutionCounter(Regions regions) {
+        this.regions = regions;
+        this.propagator = new Propagator(regions);
+    }
+
+    /**
+     * Start counting the solutions of a puzzle, throwing away any count in progress
+     *
+     * @param cells {@link Masks#CELL_COUNT} values between 0-9 indexed by {@link Masks#index(int, int)}
+     * @param limit stop once this many solutions have been found, {@link Long#MAX_VALUE} to count them all
+     */
+    public void start(int[] cells, long limit) {
+        System.arraycopy(cells, 0, puzzle, 0, Masks.CELL_COUNT);
+        this.limit = limit;
+        solutions = 0;
+        nodes = 0;
+        depth = 0;
+        descend = true;
+        finished = !propagator.load(puzzle);
+    }
+
+    /**
+     * Carry on counting
+     *
+     * @param budget the limits on this run, the node limit counts only the nodes visited in this run
+     * @return true if the count is finished, false if the budget ran out first
+     */
+    public boolean run(SolveBudget budget) {
+        long start = System.nanoTime();
+        long maxNodes = budget.getMaxNodes();
+        boolean timed = budget.isTimed();
+        long deadline = budget.deadlineFrom(start);
+        long visited = 0;
+        while (!finished) {
+            if (descend) {
+                int cell = propagator.chooseCell();
+                if (cell == Propagator.COMPLETE) {
+                    solutions++;
+                    if (solutions >= limit) {
+                        finished = true;
+                        break;
+                    }
+                    descend = false;
+                    continue;
+                }
+                if (visited >= maxNodes
+                        || (timed && (visited & CLOCK_CHECK_MASK) == 0 && System.nanoTime() - deadline >= 0)) {
+                    return false;
+                }
+                visited++;
+                nodes++;
+                stackCell[depth] = cell;
+                stackRemaining[depth] = propagator.getMask(cell);
+                stackMark[depth] = propagator.mark();
+                depth++;
+            }
+            if (depth == 0) {
+                finished = true;
+                break;
+            }
+            int top = depth - 1;
+            propagator.undo(stackMark[top]);
+            int remaining = stackRemaining[top];
+            if (remaining == 0) {
+                depth--;
+                descend = false;
+                continue;
+            }
+            int bit = remaining & -remaining;
+            stackRemaining[top] = remaining ^ bit;
+            stackChosen[top] = bit;
+            descend = propagator.assign(stackCell[top], bit);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the count is finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return the number of solutions found so far
+     */
+    public long getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * @return the number of search nodes visited so far, over every run since the count was started
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Save the count so far, can only be called between runs
+     *
+     * @param out where to write the checkpoint
+     * @throws IOException if the checkpoint can't be written
+     */
+    public void checkpoint(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(regionsHash());
+        for (int i = 0; i < Masks.CELL_COUNT; i += 2) {
+            int low = i + 1 < Masks.CELL_COUNT ? puzzle[i + 1] : 0;
+            out.writeByte(puzzle[i] << 4 | low);
+        }
+        out.writeLong(limit);
+        out.writeLong(solutions);
+        out.writeLong(nodes);
+        out.writeByte((finished ? 1 : 0) | (descend ? 2 : 0));
+        out.writeByte(depth);
+        for (int level = 0; level < depth; level++) {
+            out.writeByte(stackCell[level]);
+            out.writeShort(stackRemaining[level]);
+            out.writeShort(stackChosen[level]);
+        }
+    }
+
+    /**
+     * Load a checkpoint written by {@link SolutionCounter#checkpoint(DataOutput)}, replacing any count in progress
+     *
+     * @param in where to read the checkpoint from
+     * @throws IOException if the checkpoint can't be read, is corrupt or was made with different regions
+     */
+    public void resume(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a solution count checkpoint");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        if (in.readInt() != regionsHash()) {
+            throw new IOException("Checkpoint was made for different regions than " + regions);
+        }
+        for (int i = 0; i < Masks.CELL_COUNT; i += 2) {
+            int packed = in.readUnsignedByte();
+            puzzle[i] = checked(packed >> 4);
+            if (i + 1 < Masks.CELL_COUNT) {
+                puzzle[i + 1] = checked(packed & 0xF);
+            }
+        }
+        limit = in.readLong();
+        solutions = in.readLong();
+        nodes = in.readLong();
+        int flags = in.readUnsignedByte();
+        depth = in.readUnsignedByte();
+        if (depth > Masks.CELL_COUNT) {
+            throw new IOException("Corrupt checkpoint, stack depth " + depth);
+        }
+        finished = (flags & 1) != 0;
+        descend = (flags & 2) != 0;
+        for (int level = 0; level < depth; level++) {
+            stackCell[level] = in.readUnsignedByte();
+            stackRemaining[level] = in.readUnsignedShort();
+            stackChosen[level] = in.readUnsignedShort();
+            if (stackCell[level] >= Masks.CELL_COUNT || (stackRemaining[level] & ~Masks.ALL) != 0
+                    || Integer.bitCount(stackChosen[level]) != 1 || (stackChosen[level] & ~Masks.ALL) != 0) {
+                throw new IOException("Corrupt checkpoint at stack level " + level);
+            }
+        }
+        if (!propagator.load(puzzle)) {
+            finished = true;
+            return;
+        }
+        // rebuild the candidates by making the same guesses again
+        for (int level = 0; level < depth; level++) {
+            stackMark[level] = propagator.mark();
+            boolean consistent = propagator.assign(stackCell[level], stackChosen[level]);
+            if (!consistent && (level < depth - 1 || descend)) {
+                throw new IOException("Corrupt checkpoint, guess at stack level " + level + " fails");
+            }
+        }
+    }
+
+    private static int checked(int value) throws IOException {
+        if (value > Sudoku.GRID_SIZE) {
+            throw new IOException("Corrupt checkpoint, cell value " + value);
+        }
+        return value;
+    }
+
+    private int regionsHash() {
+        return Arrays.deepHashCode(regions.getUnits());
+    }
+}
@@ -0,0 +1,190 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Propagator;
+import com.lyndonarmitage.sudoku.Regions;
+import com.lyndonarmitage.sudoku.Sudoku;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.lyndonarmitage.sudoku.Units.COLUMN_OF;
+import static com.lyndonarmitage.sudoku.Units.ROW_OF;
+
+/**
+ * Walks the search tree of a Sudoku one solution at a time, for enumerating every solution of a puzzle that has more
+ * than one.<br />
+ * The search is the same depth first search with propagation as {@link BacktrackingSolver} but is suspended after each
+ * solution, so solutions are only found as they are asked for and the memory used stays the same however many there
+ * are. {@link SolutionSpliterator#trySplit()} hands half of the untried branches nearest the root to a new
+ * spliterator, so a parallel stream shares out the enumeration. Solutions come out in no particular order.<br />
+ * Use {@link SolutionSpliterator#solutions(Sudoku)} to get a stream.
+ */
+public class SolutionSpliterator implements Spliterator<Sudoku> {
+
+
+    private final Regions regions;
+    private final Propagator propagator;
+    private final int[] stackCell = new int[Masks.CELL_COUNT];
+    private final int[] stackRemaining = new int[Masks.CELL_COUNT];
+    private final int[] stackMark = new int[Masks.CELL_COUNT];
+    private int depth;
+    // true when the current state has been propagated and the next step is to pick a cell to branch on
+    private boolean descend;
+    private boolean done;
+
+    /**
+     * @param sudoku the Sudoku to find the solutions of, it is not changed
+     */
+    public SolutionSpliterator(Sudoku sudoku) {
+        this(sudoku, Regions.STANDARD);
+    }
+
+    /**
+     * @param sudoku  the Sudoku to find the solutions of, it is not changed
+     * @param regions the units of the variant, for example {@link Regions#diagonal()}
+     */
+    public SolutionSpliterator(Sudoku sudoku, Regions regions) {
+        this.regions = regions;
+        this.propagator = new Propagator(regions);
+        this.done = !propagator.load(sudoku.toCells(new int[Masks.CELL_COUNT]));
+        this.descend = true;
+    }
+
+    /**
+     * Create a spliterator for the untried branches of a single cell
+     */
+    private SolutionSpliterator(Regions regions, Propagator propagator, int cell, int remaining) {
+        this.regions = regions;
+        this.propagator = propagator;
+        stackCell[0] = cell;
+        stackRemaining[0] = remaining;
+        stackMark[0] = propagator.mark();
+        depth = 1;
+        descend = false;
+    }
+
+    /**
+     * @param sudoku the Sudoku to find the solutions of, it is not changed
+     * @return a lazy stream of every solution of the Sudoku
+     */
+    public static Stream<Sudoku> solutions(Sudoku sudoku) {
+        return StreamSupport.stream(new SolutionSpliterator(sudoku), false);
+    }
+
+    /**
+     * @param sudoku  the Sudoku to find the solutions of, it is not changed
+     * @param regions the units of the variant, for example {@link Regions#diagonal()}
+     * @return a lazy stream of every solution of the Sudoku
+     */
+    public static Stream<Sudoku> solutions(Sudoku sudoku, Regions regions) {
+        return StreamSupport.stream(new SolutionSpliterator(sudoku, regions), false);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Sudoku> action) {
+        if (done) {
+            return false;
+        }
+        while (true) {
+            if (descend) {
+                int cell = propagator.chooseCell();
+                if (cell == Propagator.COMPLETE) {
+                    // carry on from the next branch when asked again
+                    descend = false;
+                    action.accept(current());
+                    return true;
+                }
+                push(cell);
+            }
+            if (depth == 0) {
+                done = true;
+                return false;
+            }
+            int top = depth - 1;
+            propagator.undo(stackMark[top]);
+            int remaining = stackRemaining[top];
+            if (remaining == 0) {
+                depth--;
+                descend = false;
+                continue;
+            }
+            int bit = remaining & -remaining;
+            stackRemaining[top] = remaining ^ bit;
+            descend = propagator.assign(stackCell[top], bit);
+        }
+    }
+
+    @Override
+    public Spliterator<Sudoku> trySplit() {
+        if (done) {
+            return null;
+        }
+        if (depth == 0 && descend) {
+            // nothing has been searched yet so open up the root to have something to split
+            int cell = propagator.chooseCell();
+            if (cell == Propagator.COMPLETE) {
+                return null;
+            }
+            push(cell);
+            descend = false;
+        }
+        for (int frame = 0; frame < depth; frame++) {
+            int remaining = stackRemaining[frame];
+            int count = Masks.count(remaining);
+            // the top frame has no branch in progress unless it is being descended into
+            boolean active = frame < depth - 1 || descend;
+            if (count >= 2 || (count == 1 && active)) {
+                int given = active ? remaining : upperHalf(remaining, count);
+                stackRemaining[frame] = remaining & ~given;
+                Propagator copy = new Propagator(regions);
+                copy.copyFrom(propagator);
+                copy.undo(stackMark[frame]);
+                return new SolutionSpliterator(regions, copy, stackCell[frame], given);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return done ? 0 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | DISTINCT;
+    }
+
+    private void push(int cell) {
+        stackCell[depth] = cell;
+        stackRemaining[depth] = propagator.getMask(cell);
+        stackMark[depth] = propagator.mark();
+        depth++;
+    }
+
+    private Sudoku current() {
+        Sudoku sudoku = new Sudoku();
+        int[][] grid = sudoku.getGrid();
+        int[] masks = propagator.getMasks();
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            grid[COLUMN_OF[i]][ROW_OF[i]] = Masks.valueOf(masks[i]);
+        }
+        return sudoku;
+    }
+
+    /**
+     * @return the highest count / 2 bits of the mask
+     */
+    private static int upperHalf(int mask, int count) {
+        int upper = 0;
+        for (int i = 0; i < count / 2; i++) {
+            int bit = Integer.highestOneBit(mask);
+            upper |= bit;
+            mask ^= bit;
+        }
+        return upper;
+    }
+}
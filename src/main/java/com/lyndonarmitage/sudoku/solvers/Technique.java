@@ -0,0 +1,30 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+/**
+ * The logical techniques a {@link HintFinder} can use, in the order they are tried (cheapest first).<br />
+ * See <a href='https://www.sudokuoftheday.com/techniques/'>https://www.sudokuoftheday.com/techniques/</a> for details
+ * of each.
+ */
+public enum Technique {
+    /**
+     * A cell has only one candidate left
+     */
+    NAKED_SINGLE,
+    /**
+     * A value can only go in one cell of a row, column or box
+     */
+    HIDDEN_SINGLE,
+    /**
+     * Within a box a value can only go in one row or column, so it can be removed from the rest of that line
+     */
+    POINTING,
+    /**
+     * Within a row or column a value can only go in one box, so it can be removed from the rest of that box. Also known
+     * as candidate lines or box/line reduction
+     */
+    CLAIMING,
+    /**
+     * Two cells in a unit share the same two candidates, so those values can be removed from the rest of the unit
+     */
+    NAKED_PAIR
+}
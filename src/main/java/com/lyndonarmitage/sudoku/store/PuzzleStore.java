@@ -0,0 +1,162 @@
+package com.lyndonarmitage.sudoku.store;
+
+import com.lyndonarmitage.sudoku.Masks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory mapped file of Sudokus with a fixed stride, giving constant time access to any puzzle by its index.<br />
+ * Each record is a Sudoku in the single line format followed by a newline ({@value #RECORD_SIZE} bytes), so a line
+ * format file where every line is exactly 81 characters long can be opened as a store as it is. Puzzles are read
+ * straight from the mapped file into a caller supplied array, so going through a store creates no objects per
+ * puzzle.<br />
+ * Reads and writes of different records are safe from multiple threads.
+ */
+public class PuzzleStore implements Closeable {
+
+    public static final int RECORD_SIZE = Masks.CELL_COUNT + 1;
+    // each mapped segment holds a whole number of records and stays under the 2GB limit of a single mapping
+    private static final long SEGMENT_RECORDS = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private PuzzleStore(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        this.channel = channel;
+        this.size = size;
+        int segmentCount = (int) ((size + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long first = i * SEGMENT_RECORDS;
+            long records = Math.min(SEGMENT_RECORDS, size - first);
+            segments[i] = channel.map(mode, first * RECORD_SIZE, records * RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Open an existing store for reading
+     *
+     * @param path The file to open, its length must be a multiple of {@value #RECORD_SIZE}
+     * @return The store
+     * @throws IOException if the file couldn't be opened or is the wrong length
+     */
+    public static PuzzleStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new PuzzleStore(channel, FileChannel.MapMode.READ_ONLY, records(path, channel));
+    }
+
+    /**
+     * Open an existing store for reading and writing, keeping the puzzles already in it
+     *
+     * @param path  The file to open
+     * @param count The number of puzzles the store must hold
+     * @return The store
+     * @throws IOException if the file couldn't be opened or doesn't hold exactly <code>count</code> puzzles
+     */
+    public static PuzzleStore openForWriting(Path path, long count) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long records = records(path, channel);
+        if (records != count) {
+            channel.close();
+            throw new IOException(path + " holds " + records + " puzzles, expected " + count);
+        }
+        return new PuzzleStore(channel, FileChannel.MapMode.READ_WRITE, records);
+    }
+
+    private static long records(Path path, FileChannel channel) throws IOException {
+        long length = channel.size();
+        if (length % RECORD_SIZE != 0) {
+            channel.close();
+            throw new IOException(path + " is " + length + " bytes long, not a multiple of " + RECORD_SIZE);
+        }
+        return length / RECORD_SIZE;
+    }
+
+    /**
+     * Create (or replace) a store with room for the given number of puzzles, all initially empty
+     *
+     * @param path  The file to create
+     * @param count The number of puzzles the store holds
+     * @return The store, open for reading and writing
+     * @throws IOException if the file couldn't be created
+     */
+    public static PuzzleStore create(Path path, long count) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        PuzzleStore store = new PuzzleStore(channel, FileChannel.MapMode.READ_WRITE, count);
+        int[] empty = new int[Masks.CELL_COUNT];
+        for (long i = 0; i < count; i++) {
+            store.write(i, empty);
+        }
+        return store;
+    }
+
+    /**
+     * @return The number of puzzles in the store
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Read a puzzle into an array of cells
+     *
+     * @param index The index of the puzzle
+     * @param cells {@link Masks#CELL_COUNT} values to fill in, indexed by {@link Masks#index(int, int)}. Unknown
+     *              characters are read as -1
+     */
+    public void read(long index, int[] cells) {
+        MappedByteBuffer segment = segments[(int) (index / SEGMENT_RECORDS)];
+        int offset = (int) (index % SEGMENT_RECORDS) * RECORD_SIZE;
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int c = segment.get(offset + i);
+            if (c >= '0' && c <= '9') {
+                cells[i] = c - '0';
+            } else if (c == '.') {
+                cells[i] = 0;
+            } else {
+                cells[i] = -1;
+            }
+        }
+    }
+
+    /**
+     * Write a puzzle from an array of cells
+     *
+     * @param index The index of the puzzle
+     * @param cells {@link Masks#CELL_COUNT} values between 0-9, indexed by {@link Masks#index(int, int)}. Values
+     *              outside of that range are written as <code>.</code>
+     */
+    public void write(long index, int[] cells) {
+        MappedByteBuffer segment = segments[(int) (index / SEGMENT_RECORDS)];
+        int offset = (int) (index % SEGMENT_RECORDS) * RECORD_SIZE;
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int value = cells[i];
+            segment.put(offset + i, value >= 0 && value <= 9 ? (byte) ('0' + value) : (byte) '.');
+        }
+        segment.put(offset + Masks.CELL_COUNT, (byte) '\n');
+    }
+
+    /**
+     * Flush any written puzzles to disk
+     */
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            if (!segment.isReadOnly()) {
+                segment.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
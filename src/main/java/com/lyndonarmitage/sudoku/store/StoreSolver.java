@@ -0,0 +1,122 @@
+package com.lyndonarmitage.sudoku.store;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Solves a slice of one {@link PuzzleStore} into the same slice of another, in parallel.<br />
+ * The output store is only created on the first run, later runs open it again so slices can be solved (or solved
+ * again) one at a time without losing the others.<br />
+ * Each thread has its own solver and cell array and claims blocks of puzzles to solve, so apart from a little set up
+ * nothing is allocated however many puzzles are solved. Unsolved puzzles are written with as much as was filled in.
+ */
+public class StoreSolver {
+    private static final Logger logger = LoggerFactory.getLogger(StoreSolver.class);
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private final int threadCount;
+    private final SolveBudget budget;
+
+    /**
+     * @param threadCount The number of solving threads
+     * @param budget      The budget given to each puzzle
+     */
+    public StoreSolver(int threadCount, SolveBudget budget) {
+        this.threadCount = threadCount;
+        this.budget = budget;
+    }
+
+    /**
+     * Main entry point for the store solver
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the input store</li>
+     *             <li>arg[1] is the output store, created the same size as the input if it doesn't exist yet,
+     *             otherwise only the solved slice is overwritten</li>
+     *             <li>arg[2] is the optional index of the first puzzle to solve, defaults to 0</li>
+     *             <li>arg[3] is the optional index after the last puzzle to solve, defaults to the end</li>
+     *             <li>arg[4] is the optional number of threads, defaults to the number of processors</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Arguments should be the input and output store files");
+            System.exit(-1);
+        }
+        Path output = Paths.get(args[1]);
+        try (PuzzleStore in = PuzzleStore.open(Paths.get(args[0]));
+             PuzzleStore out = Files.exists(output)
+                     ? PuzzleStore.openForWriting(output, in.size())
+                     : PuzzleStore.create(output, in.size())) {
+            long from = args.length > 2 ? Long.parseLong(args[2]) : 0;
+            long to = args.length > 3 ? Long.parseLong(args[3]) : in.size();
+            int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+            long start = System.nanoTime();
+            long[] counts = new StoreSolver(threads, SolveBudget.UNLIMITED).solve(in, out, from, to);
+            long elapsed = System.nanoTime() - start;
+            for (SolveStatus status : SolveStatus.values()) {
+                System.out.println(status + ": " + counts[status.ordinal()]);
+            }
+            System.out.println("Took " + elapsed / 1000000 + "ms, " + (long) ((to - from) / (elapsed / 1e9)) + " puzzles/s");
+        }
+    }
+
+    /**
+     * Solve the puzzles from index <code>from</code> up to but not including <code>to</code>
+     *
+     * @param in   The store to read puzzles from
+     * @param out  The store to write solutions to, at the same indexes
+     * @param from The first index to solve
+     * @param to   The index after the last one to solve
+     * @return The number of puzzles that ended with each {@link SolveStatus}, indexed by ordinal
+     */
+    public long[] solve(PuzzleStore in, PuzzleStore out, long from, long to) throws InterruptedException {
+        if (from < 0 || to > in.size() || to > out.size() || from > to) {
+            throw new IllegalArgumentException("Range " + from + "-" + to + " is outside of the stores");
+        }
+        AtomicLong next = new AtomicLong(from);
+        AtomicLongArray counts = new AtomicLongArray(SolveStatus.values().length);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                BacktrackingSolver solver = new BacktrackingSolver();
+                int[] cells = new int[Masks.CELL_COUNT];
+                long[] local = new long[SolveStatus.values().length];
+                long block;
+                while ((block = next.getAndAdd(BLOCK_SIZE)) < to) {
+                    long end = Math.min(block + BLOCK_SIZE, to);
+                    for (long i = block; i < end; i++) {
+                        in.read(i, cells);
+                        local[solver.solveCells(cells, budget).ordinal()]++;
+                        out.write(i, cells);
+                    }
+                }
+                for (int s = 0; s < local.length; s++) {
+                    counts.addAndGet(s, local[s]);
+                }
+            }, "store-solver-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long[] result = new long[counts.length()];
+        for (int s = 0; s < result.length; s++) {
+            result[s] = counts.get(s);
+        }
+        logger.debug("Solved {} puzzles", to - from);
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.lyndonarmitage.sudoku;
+
+import com.lyndonarmitage.sudoku.solvers.Hint;
+import com.lyndonarmitage.sudoku.solvers.HintFinder;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for keeping candidates up to date one move at a time
+ */
+public class CandidateStateTest {
+
+    private static void assertMatchesRebuilt(CandidateState state) {
+        assertArrayEquals(Candidates.of(state.getSudoku()).getMasks(), state.getCandidates().getMasks());
+    }
+
+    @Test
+    public void testInitial() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        CandidateState state = new CandidateState(sudoku);
+        assertMatchesRebuilt(state);
+        assertEquals(sudoku.getHints(), state.getFilled());
+        assertEquals(0, state.getConflicts());
+        assertFalse(state.isSolved());
+    }
+
+    @Test
+    public void testPlaceAndClear() throws Exception {
+        CandidateState state = new CandidateState(new Sudoku(SudokuTest.testArray));
+        for (int y = 0; y < Sudoku.GRID_SIZE; y++) {
+            for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+                if (SudokuTest.testArray[y][x] == 0) {
+                    assertTrue(state.canPut(x, y, SudokuTest.testArrayCompleted[y][x]));
+                    state.place(x, y, SudokuTest.testArrayCompleted[y][x]);
+                    assertMatchesRebuilt(state);
+                }
+            }
+        }
+        assertTrue(state.isSolved());
+        state.clear(4, 4);
+        assertMatchesRebuilt(state);
+        assertEquals(Masks.bit(SudokuTest.testArrayCompleted[4][4]), state.getCandidates().getMask(4, 4));
+        assertFalse(state.isSolved());
+    }
+
+    @Test
+    public void testConflicts() throws Exception {
+        Sudoku sudoku = new Sudoku();
+        CandidateState state = new CandidateState(sudoku);
+        state.place(0, 0, 5);
+        assertFalse(state.canPut(8, 0, 5));
+        assertFalse(state.canPut(1, 1, 5));
+        assertTrue(state.canPut(4, 4, 5));
+        state.place(8, 0, 5);
+        assertEquals(1, state.getConflicts());
+        assertFalse(state.isConsistent());
+        state.set(8, 0, 0);
+        assertEquals(0, state.getConflicts());
+        assertTrue(state.isConsistent());
+        assertFalse(state.canPut(8, 0, 5));
+        state.place(0, 0, 6);
+        assertTrue(state.canPut(8, 0, 5));
+        assertMatchesRebuilt(state);
+    }
+
+    @Test
+    public void testHintsThroughState() throws Exception {
+        CandidateState state = new CandidateState(new Sudoku(SudokuTest.testArray));
+        HintFinder finder = new HintFinder();
+        Hint hint;
+        while ((hint = finder.next(state)) != null) {
+            hint.apply(state);
+        }
+        assertTrue(state.isSolved());
+        assertEquals(new Sudoku(SudokuTest.testArrayCompleted).toString(), state.getSudoku().toString());
+    }
+}
@@ -0,0 +1,105 @@
+package com.lyndonarmitage.sudoku;
+
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolverTest;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the compact immutable grid
+ */
+public class PackedGridTest {
+
+    private static List<String> corpus() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                PackedGridTest.class.getResourceAsStream("/corpus/standard.txt"), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line.replace('.', '0'));
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void testSudokuRoundTrip() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        PackedGrid grid = PackedGrid.of(sudoku);
+        assertEquals(sudoku.toLine(), grid.toLine());
+        assertEquals(sudoku.getHints(), grid.getHints());
+        assertEquals(sudoku.toLine(), grid.toSudoku().toLine());
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            assertEquals(sudoku.getAbsolute(Masks.x(i), Masks.y(i)), grid.get(i));
+        }
+        assertEquals(8, grid.get(0, 0));
+    }
+
+    @Test
+    public void testEveryValueInEveryCell() throws Exception {
+        int[] cells = new int[Masks.CELL_COUNT];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            cells[i] = (i * 7) % 10;
+        }
+        assertArrayEquals(cells, PackedGrid.of(cells).toCells(new int[Masks.CELL_COUNT]));
+        int[] full = new int[Masks.CELL_COUNT];
+        Arrays.fill(full, 9);
+        assertEquals(Masks.CELL_COUNT, PackedGrid.of(full).getHints());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() throws Exception {
+        List<String> lines = corpus();
+        Set<PackedGrid> grids = new HashSet<>();
+        Set<Integer> hashes = new HashSet<>();
+        for (String line : lines) {
+            PackedGrid grid = PackedGrid.parse(line);
+            PackedGrid copy = PackedGrid.parse(line);
+            assertEquals(grid, copy);
+            assertEquals(grid.hashCode(), copy.hashCode());
+            grids.add(grid);
+            hashes.add(grid.hashCode());
+        }
+        assertEquals(new HashSet<>(lines).size(), grids.size());
+        assertEquals(grids.size(), hashes.size());
+
+        // a single cell changed must change both
+        PackedGrid grid = PackedGrid.parse(lines.get(0));
+        int[] cells = grid.toCells(new int[Masks.CELL_COUNT]);
+        cells[80] = (cells[80] + 1) % 10;
+        PackedGrid changed = PackedGrid.of(cells);
+        assertNotEquals(grid, changed);
+        assertNotEquals(grid.hashCode(), changed.hashCode());
+    }
+
+    @Test
+    public void testOrderingMatchesLines() throws Exception {
+        List<String> lines = corpus();
+        for (int i = 1; i < lines.size(); i++) {
+            int expected = Integer.signum(lines.get(i - 1).compareTo(lines.get(i)));
+            int actual = Integer.signum(PackedGrid.parse(lines.get(i - 1)).compareTo(PackedGrid.parse(lines.get(i))));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidValue() {
+        int[] cells = new int[Masks.CELL_COUNT];
+        cells[40] = 10;
+        PackedGrid.of(cells);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongLength() {
+        PackedGrid.parse("123");
+    }
+}
@@ -0,0 +1,76 @@
+package com.lyndonarmitage.sudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for assign and eliminate propagation
+ */
+public class PropagatorTest {
+
+    private static int[] cells(Sudoku sudoku) {
+        return sudoku.toCells(new int[Masks.CELL_COUNT]);
+    }
+
+    @Test
+    public void testLoadSolvesBySingles() throws Exception {
+        // the easy test Sudoku only needs naked and hidden singles
+        Propagator propagator = new Propagator();
+        assertTrue(propagator.load(cells(new Sudoku(SudokuTest.testArray))));
+        int[] solved = new int[Masks.CELL_COUNT];
+        propagator.fill(solved);
+        assertArrayEquals(cells(new Sudoku(SudokuTest.testArrayCompleted)), solved);
+    }
+
+    @Test
+    public void testAssignRemovesFromPeers() {
+        Propagator propagator = new Propagator();
+        assertTrue(propagator.load(new int[Masks.CELL_COUNT]));
+        assertTrue(propagator.assign(0, Masks.bit(5)));
+        assertEquals(Masks.bit(5), propagator.getMask(0));
+        for (int peer : Units.PEERS[0]) {
+            assertEquals(Masks.ALL & ~Masks.bit(5), propagator.getMask(peer));
+        }
+        assertEquals(Masks.ALL, propagator.getMask(Masks.index(8, 8)));
+    }
+
+    @Test
+    public void testHiddenSingle() {
+        Propagator propagator = new Propagator();
+        assertTrue(propagator.load(new int[Masks.CELL_COUNT]));
+        // remove 1 from every cell of the first row but the last
+        for (int x = 0; x < 8; x++) {
+            assertTrue(propagator.eliminate(Masks.index(x, 0), Masks.bit(1)));
+        }
+        assertEquals(Masks.bit(1), propagator.getMask(Masks.index(8, 0)));
+        assertFalse((propagator.getMask(Masks.index(8, 5)) & Masks.bit(1)) != 0);
+    }
+
+    @Test
+    public void testContradictionAndUndo() {
+        Propagator propagator = new Propagator();
+        assertTrue(propagator.load(new int[Masks.CELL_COUNT]));
+        int mark = propagator.mark();
+        assertTrue(propagator.assign(0, Masks.bit(1)));
+        // a second 1 in the same row can't be placed
+        assertFalse(propagator.assign(1, Masks.bit(1)));
+        propagator.undo(mark);
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            assertEquals(Masks.ALL, propagator.getMask(i));
+        }
+    }
+
+    @Test
+    public void testLoadDuplicate() {
+        int[] cells = new int[Masks.CELL_COUNT];
+        cells[0] = 3;
+        cells[Masks.index(0, 5)] = 3;
+        assertFalse(new Propagator().load(cells));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMark() {
+        new Propagator().undo(1);
+    }
+}
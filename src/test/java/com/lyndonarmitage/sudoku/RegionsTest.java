@@ -0,0 +1,95 @@
+package com.lyndonarmitage.sudoku;
+
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolverTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the unit tables of Sudoku variants
+ */
+public class RegionsTest {
+
+    /**
+     * Boxes with each row of a band shifted right by its position in the band
+     */
+    private static int[] shiftedBoxes() {
+        int[] regionOfCell = new int[Masks.CELL_COUNT];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            int x = Masks.x(i);
+            int y = Masks.y(i);
+            regionOfCell[i] = Masks.box((x + y % Sudoku.BOX_SIZE) % Sudoku.GRID_SIZE, y);
+        }
+        return regionOfCell;
+    }
+
+    /**
+     * Solves an empty grid of the variant to get a full solution, then blanks most of it and solves it again
+     */
+    private static void assertSolvesVariant(Regions regions) {
+        BacktrackingSolver solver = new BacktrackingSolver(regions);
+        int[] cells = new int[Masks.CELL_COUNT];
+        assertEquals(SolveStatus.SOLVED, solver.solveCells(cells, SolveBudget.UNLIMITED));
+        assertTrue(regions.isSolved(cells));
+
+        int[] puzzle = Arrays.copyOf(cells, cells.length);
+        for (int i = 0; i < Masks.CELL_COUNT; i += 2) {
+            puzzle[i] = 0;
+        }
+        assertEquals(SolveStatus.SOLVED, solver.solveCells(puzzle, SolveBudget.UNLIMITED));
+        assertTrue(regions.isSolved(puzzle));
+    }
+
+    @Test
+    public void testStandardMatchesUnits() {
+        Regions regions = Regions.STANDARD;
+        assertEquals(Units.UNIT_COUNT, regions.getUnitCount());
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            assertArrayEquals(Units.OF_CELL[i], regions.getUnitsOf(i));
+            int[] peers = Units.PEERS[i].clone();
+            Arrays.sort(peers);
+            assertArrayEquals(peers, regions.getPeers(i));
+        }
+    }
+
+    @Test
+    public void testDiagonalPeers() {
+        Regions regions = Regions.diagonal();
+        // the centre is on both diagonals
+        assertEquals(5, regions.getUnitsOf(Masks.index(4, 4)).length);
+        assertEquals(Units.PEER_COUNT + 12, regions.getPeers(Masks.index(4, 4)).length);
+        // a cell off the diagonals is unchanged
+        assertEquals(Units.PEER_COUNT, regions.getPeers(Masks.index(1, 0)).length);
+    }
+
+    @Test
+    public void testSolveVariants() {
+        assertSolvesVariant(Regions.diagonal());
+        assertSolvesVariant(Regions.windoku());
+        assertSolvesVariant(Regions.jigsaw(shiftedBoxes()));
+    }
+
+    @Test
+    public void testStandardSolutionBreaksDiagonal() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        sudoku.solve(new BacktrackingSolver());
+        assertTrue(Regions.STANDARD.isSolved(sudoku));
+        assertFalse(Regions.diagonal().isSolved(sudoku));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJigsawRegionTooBig() {
+        int[] regionOfCell = shiftedBoxes();
+        regionOfCell[0] = regionOfCell[Masks.CELL_COUNT - 1];
+        Regions.jigsaw(regionOfCell);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRepeatedCell() {
+        int[][] units = {{0, 1, 2, 3, 4, 5, 6, 7, 7}};
+        Regions.of(units);
+    }
+}
@@ -0,0 +1,188 @@
+package com.lyndonarmitage.sudoku;
+
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolverTest;
+import com.lyndonarmitage.sudoku.solvers.CdclSolver;
+import com.lyndonarmitage.sudoku.solvers.LogicSolver;
+import com.lyndonarmitage.sudoku.solvers.ParallelSolver;
+import com.lyndonarmitage.sudoku.solvers.SimpleLogicSolver;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the events solvers report to a listener
+ */
+public class SolverListenerTest {
+
+    /**
+     * Records every event as a short string
+     */
+    private static class RecordingListener implements SolverListener {
+        final List<String> events = new ArrayList<>();
+        int placed;
+        int eliminated;
+        int branched;
+        int backtracked;
+
+        @Override
+        public void placed(int x, int y, int value) {
+            placed++;
+        }
+
+        @Override
+        public void eliminated(int x, int y, int value) {
+            eliminated++;
+        }
+
+        @Override
+        public void techniqueStarted(String technique) {
+            events.add("start " + technique);
+        }
+
+        @Override
+        public void techniqueFinished(String technique, int changes) {
+            events.add("finish " + technique);
+        }
+
+        @Override
+        public void branched(int x, int y, int value, int depth) {
+            branched++;
+        }
+
+        @Override
+        public void backtracked(int x, int y, int depth) {
+            backtracked++;
+        }
+    }
+
+    /**
+     * Replays the events onto a grid, keeping a copy of the grid from before the first guess at each depth
+     */
+    private static class ReplayListener implements SolverListener {
+        final int[] cells = new int[Masks.CELL_COUNT];
+        final List<int[]> saved = new ArrayList<>();
+
+        @Override
+        public void placed(int x, int y, int value) {
+            cells[Masks.index(x, y)] = value;
+        }
+
+        @Override
+        public void branched(int x, int y, int value, int depth) {
+            if (saved.size() > depth) {
+                System.arraycopy(saved.get(depth), 0, cells, 0, Masks.CELL_COUNT);
+                saved.subList(depth + 1, saved.size()).clear();
+            } else {
+                assertEquals(depth, saved.size());
+                saved.add(cells.clone());
+            }
+        }
+
+        @Override
+        public void backtracked(int x, int y, int depth) {
+            System.arraycopy(saved.get(depth), 0, cells, 0, Masks.CELL_COUNT);
+            saved.subList(depth, saved.size()).clear();
+        }
+    }
+
+    @Test
+    public void testSimpleLogicSolverPlacements() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        int givens = sudoku.getHints();
+        RecordingListener listener = new RecordingListener();
+        SimpleLogicSolver solver = new SimpleLogicSolver();
+        solver.setListener(listener);
+        assertSame(listener, solver.getListener());
+        sudoku.solve(solver);
+        assertTrue(sudoku.isValid());
+        assertEquals(Masks.CELL_COUNT - givens, listener.placed);
+        assertFalse(listener.events.isEmpty());
+        assertTrue(listener.events.get(0).startsWith("start"));
+        assertTrue(listener.events.get(listener.events.size() - 1).startsWith("finish"));
+    }
+
+    @Test
+    public void testLogicSolverEvents() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        int givens = sudoku.getHints();
+        RecordingListener listener = new RecordingListener();
+        LogicSolver solver = new LogicSolver();
+        solver.setListener(listener);
+        sudoku.solve(solver);
+        assertEquals(sudoku.getHints() - givens, listener.placed);
+        assertTrue(listener.eliminated > 0);
+        assertEquals(0, listener.events.size() % 2);
+    }
+
+    @Test
+    public void testBacktrackingSolverBranches() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        RecordingListener listener = new RecordingListener();
+        BacktrackingSolver solver = new BacktrackingSolver();
+        solver.setListener(listener);
+        SolveResult result = sudoku.solve(solver, SolveBudget.UNLIMITED);
+        assertTrue(result.isSolved());
+        assertTrue(listener.branched >= result.getNodes());
+        assertTrue(listener.backtracked > 0);
+
+        // removing the listener stops the events
+        solver.setListener(null);
+        int branched = listener.branched;
+        new Sudoku(BacktrackingSolverTest.hardSudokuString).solve(solver, SolveBudget.UNLIMITED);
+        assertEquals(branched, listener.branched);
+    }
+
+    @Test
+    public void testBacktrackingSolverReplays() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        ReplayListener listener = new ReplayListener();
+        BacktrackingSolver solver = new BacktrackingSolver();
+        solver.setListener(listener);
+        SolveResult result = sudoku.solve(solver, SolveBudget.UNLIMITED);
+        assertTrue(result.isSolved());
+        assertTrue(result.getNodes() > 1);
+        assertArrayEquals(sudoku.toCells(new int[Masks.CELL_COUNT]), listener.cells);
+    }
+
+    @Test
+    public void testCdclSolverEvents() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        RecordingListener listener = new RecordingListener();
+        CdclSolver solver = new CdclSolver();
+        solver.setListener(listener);
+        SolveResult result = sudoku.solve(solver, SolveBudget.UNLIMITED);
+        assertTrue(result.isSolved());
+        assertTrue(listener.placed >= Masks.CELL_COUNT);
+        assertTrue(listener.eliminated > 0);
+        assertTrue(listener.branched > 0);
+    }
+
+    @Test
+    public void testParallelSolverEvents() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        ReplayListener propagation = new ReplayListener();
+        AtomicInteger branched = new AtomicInteger();
+        ParallelSolver solver = new ParallelSolver(new ForkJoinPool(2), 2);
+        solver.setListener(new SolverListener() {
+            @Override
+            public void placed(int x, int y, int value) {
+                propagation.placed(x, y, value);
+            }
+
+            @Override
+            public void branched(int x, int y, int value, int depth) {
+                branched.incrementAndGet();
+            }
+        });
+        assertTrue(sudoku.solve(solver, SolveBudget.UNLIMITED).isSolved());
+        assertTrue(branched.get() > 0);
+        // the givens, what they force and then the rest of the solution
+        assertArrayEquals(sudoku.toCells(new int[Masks.CELL_COUNT]), propagation.cells);
+    }
+}
@@ -251,6 +251,21 @@ public class SudokuTest {
         logger.info("\n{}", sudoku.toString());
     }
 
+    @Test
+    public void testParseLine() throws Exception {
+        String line = testSudokuString.replace("\n", "");
+        Sudoku sudoku = new Sudoku();
+        sudoku.parseLine(line.replace('0', '.'));
+        assertEquals("ParseLine did not work correctly", testSudokuString, sudoku.toString());
+        assertEquals(line, sudoku.toLine());
+        assertEquals("ParseString did not accept a line", testSudokuString, new Sudoku(line).toString());
+    }
+
+    @Test(expected = SudokuException.class)
+    public void testParseLineInvalid() throws Exception {
+        new Sudoku().parseLine(testSudokuString.replace("\n", "").replace('6', 'x'));
+    }
+
     @Test
     public void testParseFile() throws Exception {
         Sudoku sudoku = new Sudoku(tempSudokuFile);
@@ -258,6 +273,24 @@ public class SudokuTest {
         logger.info("\n{}", sudoku.toString());
     }
 
+    @Test
+    public void testCopyInto() throws Exception {
+        Sudoku sudoku = new Sudoku();
+        validSudoku.copyInto(sudoku);
+        assertEquals(validSudoku.toString(), sudoku.toString());
+        sudoku.setAbsolute(0, 0, 0);
+        assertEquals(testArrayCompleted[0][0], validSudoku.getAbsolute(0, 0));
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        Sudoku sudoku = invalidSudoku.snapshot();
+        assertNotSame(invalidSudoku, sudoku);
+        assertEquals(invalidSudoku.toString(), sudoku.toString());
+        sudoku.setAbsolute(0, 0, 4);
+        assertEquals(0, invalidSudoku.getAbsolute(0, 0));
+    }
+
     @Test
     public void testSolve() throws Exception {
         Sudoku sudoku = new Sudoku();
@@ -392,4 +425,43 @@ public class SudokuTest {
         assertArrayEquals(expected1, invalidSudoku.getBox(0, 0));
         assertArrayEquals(expected2, validSudoku.getBox(0, 0));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetIntoBuffer() throws Exception {
+        int[] line = new int[Sudoku.GRID_SIZE];
+        assertSame(line, validSudoku.getRow(3, line));
+        assertArrayEquals(validSudoku.getRow(3), line);
+        assertSame(line, validSudoku.getColumn(5, line));
+        assertArrayEquals(validSudoku.getColumn(5), line);
+        int[][] box = new int[Sudoku.BOX_SIZE][Sudoku.BOX_SIZE];
+        assertSame(box, validSudoku.getBox(2, 1, box));
+        assertArrayEquals(validSudoku.getBox(2, 1), box);
+    }
+
+    @Test
+    public void testUnitMasks() throws Exception {
+        for (int i = 0; i < Sudoku.GRID_SIZE; i++) {
+            assertEquals(Masks.ALL, validSudoku.getRowMask(i));
+            assertEquals(Masks.ALL, validSudoku.getColumnMask(i));
+            assertEquals(Masks.ALL, validSudoku.getBoxMask(i % Sudoku.BOX_COUNT, i / Sudoku.BOX_COUNT));
+        }
+        Sudoku sudoku = new Sudoku();
+        sudoku.setAbsolute(4, 4, 7);
+        sudoku.setAbsolute(0, 4, 2);
+        assertEquals(Masks.bit(7) | Masks.bit(2), sudoku.getRowMask(4));
+        assertEquals(Masks.bit(7), sudoku.getColumnMask(4));
+        assertEquals(Masks.bit(7), sudoku.getBoxMask(1, 1));
+        assertEquals(0, sudoku.getBoxMask(2, 2));
+    }
+
+    @Test
+    public void testToCells() throws Exception {
+        int[] cells = validSudoku.toCells(new int[Masks.CELL_COUNT]);
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            assertEquals(validSudoku.getAbsolute(Masks.x(i), Masks.y(i)), cells[i]);
+        }
+        Sudoku copy = new Sudoku();
+        copy.parseCells(cells);
+        assertEquals(validSudoku.toLine(), copy.toLine());
+    }
+}
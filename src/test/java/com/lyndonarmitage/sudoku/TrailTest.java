@@ -0,0 +1,53 @@
+package com.lyndonarmitage.sudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for undoing changes with a trail
+ */
+public class TrailTest {
+
+    @Test
+    public void testUndoCells() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        String original = sudoku.toString();
+        Trail trail = new Trail(sudoku);
+        int start = trail.mark();
+        trail.set(0, 0, 4);
+        int middle = trail.mark();
+        trail.set(1, 0, 8);
+        trail.set(0, 0, 9);
+        assertEquals(3, trail.size());
+        assertEquals(9, sudoku.getAbsolute(0, 0));
+        trail.undo(middle);
+        assertEquals(4, sudoku.getAbsolute(0, 0));
+        assertEquals(0, sudoku.getAbsolute(1, 0));
+        trail.undo(start);
+        assertEquals(original, sudoku.toString());
+        assertEquals(0, trail.size());
+    }
+
+    @Test
+    public void testUndoMasks() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        Candidates candidates = Candidates.of(sudoku);
+        Candidates original = candidates.snapshot();
+        Trail trail = new Trail(sudoku, candidates);
+        int mark = trail.mark();
+        trail.set(0, 0, 4);
+        trail.setMask(Masks.index(0, 0), Masks.bit(4));
+        assertTrue(trail.removeMask(Masks.index(1, 0), Masks.bit(4)));
+        assertFalse(trail.removeMask(Masks.index(1, 0), Masks.bit(4)));
+        assertEquals(3, trail.size());
+        trail.undo(mark);
+        assertArrayEquals(original.getMasks(), candidates.getMasks());
+        assertEquals(0, sudoku.getAbsolute(0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndoBadMark() throws Exception {
+        new Trail(new Sudoku()).undo(1);
+    }
+}
@@ -0,0 +1,76 @@
+package com.lyndonarmitage.sudoku.cli;
+
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolverTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the headless single puzzle command line solver
+ */
+public class SolveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int run(String input, String... args) {
+        return Solve.run(args, new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)),
+                new PrintStream(out), new PrintStream(err));
+    }
+
+    private String output() {
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testSolveFromStdin() throws Exception {
+        assertEquals(0, run(new Sudoku(SudokuTest.testArray).toLine()));
+        assertEquals(new Sudoku(SudokuTest.testArrayCompleted).toLine(), new Sudoku(output()).toLine());
+    }
+
+    @Test
+    public void testSolveFromFile() throws Exception {
+        File file = folder.newFile("hard.txt");
+        Files.write(file.toPath(), ("Grid 01\n" + BacktrackingSolverTest.hardSudokuString)
+                .getBytes(StandardCharsets.US_ASCII));
+        assertEquals(0, run("", file.getPath()));
+        Sudoku solved = new Sudoku(output());
+        assertTrue(solved.isValid());
+        assertEquals(81, solved.getHints());
+    }
+
+    @Test
+    public void testBadInput() {
+        assertEquals(2, run("12345"));
+        assertEquals(2, run("", new File(folder.getRoot(), "missing.txt").getPath()));
+        assertEquals("", output());
+    }
+
+    @Test
+    public void testBadTimeLimit() throws Exception {
+        assertEquals(2, run(new Sudoku(SudokuTest.testArray).toLine(), "-", "soon"));
+        assertEquals("", output());
+        assertTrue(new String(err.toByteArray(), StandardCharsets.US_ASCII).contains("Bad time limit"));
+    }
+
+    @Test
+    public void testNoSolution() {
+        // two 5s in the first row
+        assertEquals(1, run("55" + new String(new char[79]).replace('\0', '.')));
+        assertTrue(new String(err.toByteArray(), StandardCharsets.US_ASCII).contains("No solution"));
+    }
+}
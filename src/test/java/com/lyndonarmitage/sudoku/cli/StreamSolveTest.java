@@ -0,0 +1,50 @@
+package com.lyndonarmitage.sudoku.cli;
+
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the streaming command line solver
+ */
+public class StreamSolveTest {
+
+    @Test
+    public void testOrderPreserved() throws Exception {
+        String puzzle = new Sudoku(SudokuTest.testArray).toLine();
+        String solution = new Sudoku(SudokuTest.testArrayCompleted).toLine();
+        StringBuilder input = new StringBuilder();
+        int count = 2000;
+        for (int i = 0; i < count; i++) {
+            // every 7th line is broken so the output order can be checked
+            input.append(i % 7 == 0 ? "bad " + i : puzzle).append('\n');
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long lines = new StreamSolve(4, SolveBudget.UNLIMITED)
+                .run(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.US_ASCII)), out);
+        assertEquals(count, lines);
+        String[] answers = new String(out.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+        assertEquals(count, answers.length);
+        for (int i = 0; i < count; i++) {
+            if (i % 7 == 0) {
+                assertTrue(answers[i], answers[i].startsWith("ERROR"));
+            } else {
+                assertEquals(solution, answers[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyInput() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, new StreamSolve(2, SolveBudget.UNLIMITED).run(new ByteArrayInputStream(new byte[0]), out));
+        assertEquals(0, out.size());
+    }
+}
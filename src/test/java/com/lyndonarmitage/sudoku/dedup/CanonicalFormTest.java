@@ -0,0 +1,168 @@
+package com.lyndonarmitage.sudoku.dedup;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolverTest;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for canonical forms and deduplication
+ */
+public class CanonicalFormTest {
+
+    private static int[] cells(String sudoku) throws Exception {
+        return cells(new Sudoku(sudoku));
+    }
+
+    private static int[] cells(Sudoku sudoku) throws Exception {
+        return sudoku.toCells(new int[Masks.CELL_COUNT]);
+    }
+
+    /**
+     * Applies a random mix of every symmetry: relabelling the values, reordering the bands, the rows in each band, the
+     * stacks and the columns in each stack, and transposing
+     */
+    private static int[] transform(int[] cells, Random random) {
+        int[] relabel = new int[Sudoku.GRID_SIZE + 1];
+        int[] values = shuffled(Sudoku.GRID_SIZE, random);
+        for (int v = 1; v <= Sudoku.GRID_SIZE; v++) {
+            relabel[v] = values[v - 1] + 1;
+        }
+        int[] rows = lines(random);
+        int[] columns = lines(random);
+        boolean transpose = random.nextBoolean();
+        int[] out = new int[Masks.CELL_COUNT];
+        for (int y = 0; y < Sudoku.GRID_SIZE; y++) {
+            for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+                int from = transpose ? Masks.index(rows[y], columns[x]) : Masks.index(columns[x], rows[y]);
+                out[Masks.index(x, y)] = relabel[cells[from]];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return a random order of the rows (or columns) that keeps each band's rows together
+     */
+    private static int[] lines(Random random) {
+        int[] bands = shuffled(Sudoku.BOX_COUNT, random);
+        int[] lines = new int[Sudoku.GRID_SIZE];
+        for (int band = 0; band < Sudoku.BOX_COUNT; band++) {
+            int[] within = shuffled(Sudoku.BOX_SIZE, random);
+            for (int i = 0; i < Sudoku.BOX_SIZE; i++) {
+                lines[band * Sudoku.BOX_SIZE + i] = bands[band] * Sudoku.BOX_SIZE + within[i];
+            }
+        }
+        return lines;
+    }
+
+    private static int[] shuffled(int count, Random random) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    private static List<int[]> corpus() throws Exception {
+        List<int[]> puzzles = new ArrayList<>();
+        for (String name : new String[]{"standard.txt", "minimal.txt", "hard.txt"}) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    CanonicalFormTest.class.getResourceAsStream("/corpus/" + name), StandardCharsets.US_ASCII))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Sudoku sudoku = new Sudoku();
+                    sudoku.parseLine(line);
+                    puzzles.add(cells(sudoku));
+                }
+            }
+        }
+        return puzzles;
+    }
+
+    @Test
+    public void testIsomorphsMatch() throws Exception {
+        CanonicalForm form = new CanonicalForm();
+        Random random = new Random(33);
+        for (int[] original : corpus()) {
+            long fingerprint = form.fingerprint(original.clone());
+            for (int trial = 0; trial < 5; trial++) {
+                int[] transformed = transform(original, random);
+                assertEquals(Arrays.toString(transformed), fingerprint, form.fingerprint(transformed));
+            }
+        }
+    }
+
+    @Test
+    public void testDifferentPuzzlesDiffer() throws Exception {
+        CanonicalForm form = new CanonicalForm();
+        int[] a = cells(new Sudoku(SudokuTest.testArray));
+        int[] b = a.clone();
+        b[Masks.index(1, 0)] = 4; // one more clue
+        assertNotEquals(form.fingerprint(a), form.fingerprint(b));
+        assertNotEquals(form.fingerprint(cells(new Sudoku(SudokuTest.testArray))), form.fingerprint(cells(BacktrackingSolverTest.hardSudokuString)));
+    }
+
+    @Test
+    public void testDeduplicate() throws Exception {
+        String puzzle = new Sudoku(SudokuTest.testArray).toLine();
+        StringBuilder relabelled = new StringBuilder();
+        for (char c : puzzle.toCharArray()) {
+            relabelled.append(c == '0' ? '.' : (char) ('1' + ('9' - c)));
+        }
+        String input = puzzle + "\n" + relabelled + "\n" + puzzle + "\nrubbish\n"
+                + new Sudoku(BacktrackingSolverTest.hardSudokuString).toLine() + "\n";
+        Deduplicate deduplicate = new Deduplicate(100, true);
+        StringWriter out = new StringWriter();
+        deduplicate.process(new BufferedReader(new StringReader(input)), out);
+        assertEquals(5, deduplicate.getRead());
+        assertEquals(2, deduplicate.getUnique());
+        assertEquals(1, deduplicate.getInvalid());
+        assertEquals(puzzle + "\n" + new Sudoku(BacktrackingSolverTest.hardSudokuString).toLine() + "\n", out.toString());
+    }
+
+    @Test
+    public void testDeduplicateAdd() throws Exception {
+        String puzzle = new Sudoku(SudokuTest.testArray).toLine();
+        Deduplicate deduplicate = new Deduplicate(100, false);
+        assertTrue(deduplicate.add(puzzle));
+        assertFalse(deduplicate.add(puzzle));
+        assertFalse(deduplicate.add("rubbish"));
+        assertEquals(3, deduplicate.getRead());
+        assertEquals(1, deduplicate.getUnique());
+        assertEquals(1, deduplicate.getInvalid());
+    }
+
+    @Test
+    public void testLongHashSet() throws Exception {
+        LongHashSet set = new LongHashSet(1000, false);
+        for (long i = 0; i < 1000; i++) {
+            assertTrue(set.add(i * 7919));
+        }
+        for (long i = 0; i < 1000; i++) {
+            assertFalse(set.add(i * 7919));
+            assertTrue(set.contains(i * 7919));
+        }
+        assertFalse(set.contains(1));
+        assertEquals(1000, set.size());
+    }
+}
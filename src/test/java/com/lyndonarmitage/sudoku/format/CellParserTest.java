@@ -0,0 +1,41 @@
+package com.lyndonarmitage.sudoku.format;
+
+import com.lyndonarmitage.sudoku.Masks;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for reading cells out of puzzle text
+ */
+public class CellParserTest {
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testHeadersAndWhitespaceIgnored() {
+        byte[] data = bytes("Grid 01\r\n1.3 \t0\n56\nGrid 02\n789\n");
+        int[] cells = new int[Masks.CELL_COUNT];
+        assertEquals(9, CellParser.read(data, data.length, cells, cells.length));
+        assertArrayEquals(new int[]{1, 0, 3, 0, 5, 6, 7, 8, 9}, Arrays.copyOf(cells, 9));
+    }
+
+    @Test
+    public void testStopsAtMax() {
+        byte[] data = bytes("1234 then anything");
+        int[] cells = new int[4];
+        assertEquals(4, CellParser.read(data, data.length, cells, 4));
+        assertEquals(2, CellParser.read(data, 2, cells, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadCharacter() {
+        byte[] data = bytes("12x4");
+        CellParser.read(data, data.length, new int[4], 4);
+    }
+}
@@ -0,0 +1,129 @@
+package com.lyndonarmitage.sudoku.format;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolverTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for loading puzzles from folders and zip files
+ */
+public class CorpusLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, int[]> load(Path source, String pattern, CorpusLoader loader) throws IOException {
+        Map<String, int[]> puzzles = new TreeMap<>();
+        long count = loader.load(source, pattern, (name, cells) -> {
+            synchronized (puzzles) {
+                puzzles.put(name.replace(File.separatorChar, '/'), cells.clone());
+            }
+        });
+        assertEquals(puzzles.size(), count);
+        return puzzles;
+    }
+
+    private static int[] cells(String sudoku) {
+        int[] cells = new int[Masks.CELL_COUNT];
+        int filled = 0;
+        for (char c : sudoku.toCharArray()) {
+            if (c >= '0' && c <= '9') {
+                cells[filled++] = c - '0';
+            }
+        }
+        return cells;
+    }
+
+    private void write(String name, String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testLoadFolderTree() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            write((i % 2 == 0 ? "a/" : "b/c/") + i + ".sudoku.txt", SudokuTest.testSudokuString);
+        }
+        write("readme.md", "not a puzzle");
+        CorpusLoader loader = new CorpusLoader(4);
+        Map<String, int[]> puzzles = load(folder.getRoot().toPath(), "\\d+\\.sudoku\\.txt", loader);
+        assertEquals(50, puzzles.size());
+        assertEquals(0, loader.getMalformed());
+        assertArrayEquals(cells(SudokuTest.testSudokuString), puzzles.get("b/c/7.sudoku.txt"));
+    }
+
+    @Test
+    public void testMatchesSudokuFile() throws Exception {
+        // the hard puzzle isn't symmetric so a transposed load would show up
+        write("hard.txt", BacktrackingSolverTest.hardSudokuString);
+        File file = new File(folder.getRoot(), "hard.txt");
+        int[] cells = load(folder.getRoot().toPath(), null, new CorpusLoader(1)).get("hard.txt");
+        Sudoku expected = new Sudoku(file);
+        Sudoku loaded = new Sudoku();
+        loaded.parseCells(cells);
+        assertEquals(expected.toLine(), loaded.toLine());
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            assertEquals(expected.getAbsolute(Masks.x(i), Masks.y(i)), cells[i]);
+        }
+    }
+
+    @Test
+    public void testSeveralPuzzlesPerFile() throws Exception {
+        write("euler.txt", "Grid 01\n" + SudokuTest.testSudokuString.trim() + "\nGrid 02\n"
+                + BacktrackingSolverTest.hardSudokuString + "\n");
+        Map<String, int[]> puzzles = load(folder.getRoot().toPath(), null, new CorpusLoader(2));
+        assertEquals(2, puzzles.size());
+        assertArrayEquals(cells(BacktrackingSolverTest.hardSudokuString), puzzles.get("euler.txt#1"));
+    }
+
+    @Test
+    public void testMalformedFilesSkipped() throws Exception {
+        write("good.txt", SudokuTest.testSudokuString);
+        write("short.txt", "123\n");
+        write("letters.txt", "hello");
+        // good puzzles followed by a bad one, none of which should be loaded
+        write("trailing.txt", SudokuTest.testSudokuString + BacktrackingSolverTest.hardSudokuString + "12x\n");
+        write("partial.txt", SudokuTest.testSudokuString + "123\n");
+        CorpusLoader loader = new CorpusLoader(2);
+        Map<String, int[]> puzzles = load(folder.getRoot().toPath(), null, loader);
+        assertEquals(1, puzzles.size());
+        assertTrue(puzzles.containsKey("good.txt"));
+        assertEquals(4, loader.getMalformed());
+    }
+
+    @Test
+    public void testLoadZip() throws Exception {
+        File zip = folder.newFile("corpus.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            for (int i = 0; i < 20; i++) {
+                out.putNextEntry(new ZipEntry("puzzles/" + i + ".sudoku.txt"));
+                out.write(BacktrackingSolverTest.hardSudokuString.getBytes(StandardCharsets.US_ASCII));
+                out.closeEntry();
+            }
+            out.putNextEntry(new ZipEntry("puzzles/notes.md"));
+            out.write("not a puzzle".getBytes(StandardCharsets.US_ASCII));
+            out.closeEntry();
+        }
+        Map<String, int[]> puzzles = load(zip.toPath(), "\\d+\\.sudoku\\.txt", new CorpusLoader(3));
+        assertEquals(20, puzzles.size());
+        assertArrayEquals(cells(BacktrackingSolverTest.hardSudokuString), puzzles.get("puzzles/3.sudoku.txt"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.lyndonarmitage.sudoku.format;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolverTest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for reading, writing and converting puzzle formats
+ */
+public class FormatConverterTest {
+
+    private static final String euler = "Grid 01\n" + SudokuTest.testSudokuString.trim() + "\n"
+            + "Grid 02\n" + BacktrackingSolverTest.hardSudokuString + "\n";
+
+    private static List<int[]> readAll(byte[] data, PuzzleFormat format) throws IOException {
+        List<int[]> puzzles = new ArrayList<>();
+        try (PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(data), format)) {
+            int[] cells = new int[Masks.CELL_COUNT];
+            while (reader.next(cells)) {
+                puzzles.add(cells.clone());
+            }
+        }
+        return puzzles;
+    }
+
+    private static byte[] convert(byte[] data, PuzzleFormat from, PuzzleFormat to) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(data), from);
+             PuzzleWriter writer = new PuzzleWriter(out, to)) {
+            assertEquals(2, FormatConverter.convert(reader, writer));
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testReadEuler() throws Exception {
+        List<int[]> puzzles = readAll(euler.getBytes(StandardCharsets.US_ASCII), PuzzleFormat.EULER);
+        assertEquals(2, puzzles.size());
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            assertEquals(sudoku.getAbsolute(Masks.x(i), Masks.y(i)), puzzles.get(1)[i]);
+        }
+    }
+
+    @Test
+    public void testRoundTripEveryFormat() throws Exception {
+        byte[] original = euler.getBytes(StandardCharsets.US_ASCII);
+        List<int[]> expected = readAll(original, PuzzleFormat.EULER);
+        for (PuzzleFormat format : PuzzleFormat.values()) {
+            byte[] converted = convert(original, PuzzleFormat.EULER, format);
+            List<int[]> puzzles = readAll(converted, format);
+            assertEquals(format.toString(), expected.size(), puzzles.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(format.toString(), expected.get(i), puzzles.get(i));
+            }
+            // and back again gives the same Euler file
+            assertEquals(euler, new String(convert(converted, format, PuzzleFormat.EULER), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void testLineAndBinarySizes() throws Exception {
+        byte[] original = euler.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(2 * (Masks.CELL_COUNT + 1), convert(original, PuzzleFormat.EULER, PuzzleFormat.LINE).length);
+        assertEquals(2 * PuzzleWriter.BINARY_RECORD_SIZE,
+                convert(original, PuzzleFormat.EULER, PuzzleFormat.BINARY).length);
+    }
+
+    @Test
+    public void testLineAcceptsDots() throws Exception {
+        String line = "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......\n";
+        List<int[]> puzzles = readAll(line.getBytes(StandardCharsets.US_ASCII), PuzzleFormat.LINE);
+        assertEquals(1, puzzles.size());
+        assertEquals(4, puzzles.get(0)[0]);
+        assertEquals(0, puzzles.get(0)[1]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedGrid() throws Exception {
+        readAll("Grid 01\n123\n".getBytes(StandardCharsets.US_ASCII), PuzzleFormat.EULER);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedBinary() throws Exception {
+        readAll(new byte[PuzzleWriter.BINARY_RECORD_SIZE - 1], PuzzleFormat.BINARY);
+    }
+}
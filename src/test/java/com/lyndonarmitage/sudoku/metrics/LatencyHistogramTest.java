@@ -0,0 +1,66 @@
+package com.lyndonarmitage.sudoku.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the log bucketed latency histogram
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500.0, histogram.getMean(), 0.001);
+        assertWithin(500000, histogram.getPercentile(50));
+        assertWithin(990000, histogram.getPercentile(99));
+        assertEquals(1000000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testBuckets() throws Exception {
+        for (long value : new long[]{0, 1, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value + " above its bucket", value <= LatencyHistogram.upperBoundOf(bucket));
+            if (bucket > 0) {
+                assertTrue(value + " below its bucket", value > LatencyHistogram.upperBoundOf(bucket - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testAdd() throws Exception {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(2000);
+        b.record(3000);
+        a.add(b);
+        assertEquals(3, a.getCount());
+        assertEquals(3000, a.getMax());
+        a.reset();
+        assertEquals(0, a.getCount());
+        assertEquals(0, a.getPercentile(99));
+    }
+
+    @Test
+    public void testRebuildFromBuckets() throws Exception {
+        LatencyHistogram original = new LatencyHistogram();
+        for (long i = 1; i <= 500; i++) {
+            original.record(i * 7919);
+        }
+        LatencyHistogram copy = LatencyHistogram.of(original.getBucketCounts(), original.getTotal(), original.getMax());
+        assertEquals(original.toString(), copy.toString());
+        assertArrayEquals(original.getBucketCounts(), copy.getBucketCounts());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("Expected about " + expected + " but was " + actual, Math.abs(expected - actual) <= expected / 16);
+    }
+}
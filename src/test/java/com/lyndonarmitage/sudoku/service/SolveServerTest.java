@@ -0,0 +1,104 @@
+package com.lyndonarmitage.sudoku.service;
+
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the HTTP solving service
+ */
+public class SolveServerTest {
+
+    private SolveServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new SolveServer(new InetSocketAddress("localhost", 0), 2, 8, 100, SolveBudget.UNLIMITED);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void testSolveBatch() throws Exception {
+        String puzzle = new Sudoku(SudokuTest.testArray).toLine();
+        String solution = new Sudoku(SudokuTest.testArrayCompleted).toLine();
+        String response = request("POST", "/solve", puzzle + "\nnot a sudoku\n\n" + puzzle.replace('0', '.') + "\n");
+        String[] lines = response.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(solution, lines[0]);
+        assertTrue(lines[1].startsWith("ERROR"));
+        assertEquals(solution, lines[2]);
+        assertEquals(3, server.getSolveLatency().getCount());
+        assertEquals(1, server.getRequestLatency().getCount());
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        request("POST", "/solve", new Sudoku(SudokuTest.testArray).toLine());
+        String stats = request("GET", "/stats", null);
+        assertTrue(stats, stats.contains("\"requests\":1"));
+        assertTrue(stats, stats.contains("\"requestP99Micros\":"));
+    }
+
+    @Test
+    public void testTooLarge() throws Exception {
+        // the server in these tests only queues 100 puzzles
+        String puzzle = new Sudoku(SudokuTest.testArray).toLine();
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 101; i++) {
+            batch.append(puzzle).append('\n');
+        }
+        assertEquals(413, connect("POST", "/solve", batch.toString()).getResponseCode());
+        char[] spaces = new char[100 * 128 + 1];
+        Arrays.fill(spaces, ' ');
+        assertEquals(413, connect("POST", "/solve", new String(spaces)).getResponseCode());
+        assertEquals(0, server.getSolveLatency().getCount());
+        // a full batch is still solved
+        batch.setLength(batch.length() - puzzle.length() - 1);
+        assertEquals(100, request("POST", "/solve", batch.toString()).split("\n").length);
+    }
+
+    private HttpURLConnection connect(String method, String path, String body) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        return connection;
+    }
+
+    private String request(String method, String path, String body) throws Exception {
+        HttpURLConnection connection = connect(method, path, body);
+        assertEquals(200, connection.getResponseCode());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
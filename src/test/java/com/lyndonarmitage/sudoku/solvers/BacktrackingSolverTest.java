@@ -0,0 +1,159 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Propagator;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import com.lyndonarmitage.sudoku.format.PuzzleFormat;
+import com.lyndonarmitage.sudoku.format.PuzzleReader;
+import com.lyndonarmitage.sudoku.format.PuzzleWriter;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the budgeted depth first search solver
+ */
+public class BacktrackingSolverTest {
+
+    // @formatter:off
+    public static final String hardSudokuString =
+            "800000000\n" +
+            "003600000\n" +
+            "070090200\n" +
+            "050007000\n" +
+            "000045700\n" +
+            "000100030\n" +
+            "001000068\n" +
+            "008500010\n" +
+            "090000400";
+    // @formatter:on
+
+    @Test
+    public void testSolve() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        Sudoku expectedSudoku = new Sudoku(SudokuTest.testArrayCompleted);
+        sudoku.solve(new BacktrackingSolver());
+        assertTrue("Failed to solve test sudoku", sudoku.isValid());
+        assertEquals("Did not match expected output", expectedSudoku.toString(), sudoku.toString());
+    }
+
+    @Test
+    public void testSolveHard() throws Exception {
+        Sudoku sudoku = new Sudoku(hardSudokuString);
+        SolveResult result = sudoku.solve(new BacktrackingSolver(), SolveBudget.UNLIMITED);
+        assertEquals(SolveStatus.SOLVED, result.getStatus());
+        assertTrue("Failed to solve hard sudoku", sudoku.isValid());
+        assertTrue(result.getNodes() > 1);
+    }
+
+    @Test
+    public void testNodeBudgetExhausted() throws Exception {
+        Sudoku sudoku = new Sudoku(hardSudokuString);
+        String original = sudoku.toString();
+        SolveResult result = sudoku.solve(new BacktrackingSolver(), SolveBudget.nodes(10));
+        assertEquals(SolveStatus.BUDGET_EXHAUSTED, result.getStatus());
+        assertEquals(10, result.getNodes());
+        assertSame(sudoku, result.getSudoku());
+        // nothing in the hard sudoku is forced so it should be left as it was
+        assertEquals(original, sudoku.toString());
+        assertEquals(Masks.bit(8), result.getCandidates().getMask(0, 0));
+        assertFalse(result.getCandidates().contains(1, 0, 8));
+    }
+
+    @Test
+    public void testTimeBudgetExhausted() throws Exception {
+        Sudoku sudoku = new Sudoku(hardSudokuString);
+        SolveResult result = sudoku.solve(new BacktrackingSolver(), SolveBudget.timeout(0, TimeUnit.NANOSECONDS));
+        assertEquals(SolveStatus.BUDGET_EXHAUSTED, result.getStatus());
+    }
+
+    @Test
+    public void testForcedValuesKept() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        SolveResult result = sudoku.solve(new BacktrackingSolver(), SolveBudget.nodes(0));
+        // the easy test sudoku is solved by forced values alone
+        assertEquals(SolveStatus.SOLVED, result.getStatus());
+        assertTrue(sudoku.isValid());
+    }
+
+    @Test
+    public void testUnsolvable() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        sudoku.setAbsolute(1, 0, 3); // 3 is already in the row
+        String original = sudoku.toString();
+        SolveResult result = sudoku.solve(new BacktrackingSolver(), SolveBudget.UNLIMITED);
+        assertEquals(SolveStatus.UNSOLVABLE, result.getStatus());
+        assertEquals(original, sudoku.toString());
+    }
+
+    @Test
+    public void testUnsolvableAfterSearch() throws Exception {
+        // propagation alone finds no contradiction, the search has to branch to show there is no solution
+        String line = "690450000040000000070803040001024009000000000850730020010080702000200198900017530";
+        int[] cells = new int[Masks.CELL_COUNT];
+        for (int i = 0; i < Masks.CELL_COUNT; i++) {
+            cells[i] = line.charAt(i) - '0';
+        }
+        int[] given = cells.clone();
+        assertTrue(new Propagator().load(cells));
+        BacktrackingSolver solver = new BacktrackingSolver();
+        assertEquals(SolveStatus.UNSOLVABLE, solver.solveCells(cells, SolveBudget.UNLIMITED));
+        assertTrue(solver.getNodes() > 1);
+        assertArrayEquals(given, cells);
+
+        Sudoku sudoku = new Sudoku();
+        sudoku.parseCells(given);
+        String original = sudoku.toString();
+        assertEquals(SolveStatus.UNSOLVABLE, sudoku.solve(solver, SolveBudget.UNLIMITED).getStatus());
+        assertEquals(original, sudoku.toString());
+    }
+
+    @Test
+    public void testSolveBatch() throws Exception {
+        Sudoku unsolvable = new Sudoku(SudokuTest.testArray);
+        unsolvable.setAbsolute(1, 0, 3);
+        Sudoku[] sudokus = {new Sudoku(hardSudokuString), unsolvable, new Sudoku(SudokuTest.testArray)};
+        ByteArrayOutputStream packed = new ByteArrayOutputStream();
+        try (PuzzleWriter writer = new PuzzleWriter(packed, PuzzleFormat.BINARY)) {
+            int[] cells = new int[Masks.CELL_COUNT];
+            for (Sudoku sudoku : sudokus) {
+                writer.write(sudoku.toCells(cells));
+            }
+        }
+        byte[] puzzles = packed.toByteArray();
+        assertEquals(sudokus.length * BacktrackingSolver.PACKED_SIZE, puzzles.length);
+
+        byte[] solutions = new byte[puzzles.length];
+        SolveStatus[] statuses = new SolveStatus[sudokus.length];
+        BacktrackingSolver solver = new BacktrackingSolver();
+        assertEquals(2, solver.solveBatch(ByteBuffer.wrap(puzzles), ByteBuffer.wrap(solutions),
+                SolveBudget.UNLIMITED, statuses));
+        assertArrayEquals(new SolveStatus[]{SolveStatus.SOLVED, SolveStatus.UNSOLVABLE, SolveStatus.SOLVED}, statuses);
+
+        try (PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(solutions), PuzzleFormat.BINARY)) {
+            int[] cells = new int[Masks.CELL_COUNT];
+            for (Sudoku sudoku : sudokus) {
+                assertTrue(reader.next(cells));
+                sudoku.solve(solver, SolveBudget.UNLIMITED);
+                for (int i = 0; i < Masks.CELL_COUNT; i++) {
+                    assertEquals(sudoku.getAbsolute(Masks.x(i), Masks.y(i)), cells[i]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSolveBatchOutputTooSmall() {
+        new BacktrackingSolver().solveBatch(new byte[BacktrackingSolver.PACKED_SIZE * 2],
+                new byte[BacktrackingSolver.PACKED_SIZE], SolveBudget.UNLIMITED);
+    }
+}
@@ -0,0 +1,111 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.format.FormatConverter;
+import com.lyndonarmitage.sudoku.format.PuzzleFormat;
+import com.lyndonarmitage.sudoku.format.PuzzleReader;
+import com.lyndonarmitage.sudoku.format.PuzzleWriter;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the 64 lane bit-sliced solver, which should always agree with the scalar search
+ */
+public class BitSlicedSolverTest {
+
+    private static byte[] packCorpus(String name) throws IOException {
+        return pack(BitSlicedSolverTest.class.getResourceAsStream("/corpus/" + name));
+    }
+
+    private static byte[] pack(InputStream lines) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = lines;
+             PuzzleReader reader = new PuzzleReader(in, PuzzleFormat.LINE);
+             PuzzleWriter writer = new PuzzleWriter(out, PuzzleFormat.BINARY)) {
+            FormatConverter.convert(reader, writer);
+        }
+        return out.toByteArray();
+    }
+
+    private static void assertAgrees(byte[] puzzles) {
+        assertAgrees(puzzles, SolveBudget.UNLIMITED);
+    }
+
+    private static SolveStatus[] assertAgrees(byte[] puzzles, SolveBudget budget) {
+        int count = puzzles.length / BacktrackingSolver.PACKED_SIZE;
+        byte[] expected = new byte[puzzles.length];
+        SolveStatus[] expectedStatuses = new SolveStatus[count];
+        int expectedSolved = new BacktrackingSolver().solveBatch(ByteBuffer.wrap(puzzles), ByteBuffer.wrap(expected),
+                budget, expectedStatuses);
+
+        byte[] actual = new byte[puzzles.length];
+        SolveStatus[] statuses = new SolveStatus[count];
+        int solved = new BitSlicedSolver().solveBatch(ByteBuffer.wrap(puzzles), ByteBuffer.wrap(actual),
+                budget, statuses);
+        assertEquals(expectedSolved, solved);
+        assertArrayEquals(expectedStatuses, statuses);
+        assertArrayEquals(expected, actual);
+        return statuses;
+    }
+
+    @Test
+    public void testStandardCorpus() throws Exception {
+        byte[] puzzles = packCorpus("standard.txt");
+        BitSlicedSolver solver = new BitSlicedSolver();
+        byte[] solutions = new byte[puzzles.length];
+        assertEquals(puzzles.length / BacktrackingSolver.PACKED_SIZE,
+                solver.solveBatch(puzzles, solutions, SolveBudget.UNLIMITED));
+        assertAgrees(puzzles);
+    }
+
+    @Test
+    public void testHardPuzzlesFallBack() throws Exception {
+        byte[] puzzles = packCorpus("hard.txt");
+        BitSlicedSolver solver = new BitSlicedSolver();
+        assertEquals(4, solver.solveBatch(puzzles, new byte[puzzles.length], SolveBudget.UNLIMITED));
+        assertTrue(solver.getFallbacks() > 0);
+        assertAgrees(puzzles);
+    }
+
+    @Test
+    public void testUnsolvableAndPartialBlock() throws Exception {
+        byte[] standard = packCorpus("standard.txt");
+        // 70 puzzles so the second block only uses some of its lanes
+        byte[] puzzles = Arrays.copyOf(standard, 70 * BacktrackingSolver.PACKED_SIZE);
+        // a repeated given in the first row of puzzle 3 and an empty grid in puzzle 66
+        int third = 3 * BacktrackingSolver.PACKED_SIZE;
+        puzzles[third] = 0x11;
+        Arrays.fill(puzzles, 66 * BacktrackingSolver.PACKED_SIZE, 67 * BacktrackingSolver.PACKED_SIZE, (byte) 0);
+        assertAgrees(puzzles);
+    }
+
+    @Test
+    public void testUnsolvableAfterSearch() throws Exception {
+        // propagation finds no contradiction so the lane falls back, and only the search shows there is no solution
+        String unsolvable = "690450000040000000070803040001024009000000000850730020010080702000200198900017530";
+        byte[] puzzles = pack(new ByteArrayInputStream((unsolvable + "\n").getBytes(StandardCharsets.US_ASCII)));
+        BitSlicedSolver solver = new BitSlicedSolver();
+        byte[] solutions = new byte[puzzles.length];
+        assertEquals(0, solver.solveBatch(puzzles, solutions, SolveBudget.UNLIMITED));
+        assertEquals(1, solver.getFallbacks());
+        assertArrayEquals(puzzles, solutions);
+        assertAgrees(puzzles);
+    }
+
+    @Test
+    public void testBudgetExhausted() throws Exception {
+        byte[] puzzles = packCorpus("hard.txt");
+        SolveStatus[] statuses = assertAgrees(puzzles, SolveBudget.nodes(1));
+        assertTrue(Arrays.asList(statuses).contains(SolveStatus.BUDGET_EXHAUSTED));
+    }
+}
@@ -0,0 +1,119 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the clause learning solver
+ */
+public class CdclSolverTest {
+
+    // a puzzle whose first row is built to make a depth first search trying values in order take a very long time
+    public static final String antiBacktrackingLine =
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9";
+
+    @Test
+    public void testSolve() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        Sudoku expectedSudoku = new Sudoku(SudokuTest.testArrayCompleted);
+        sudoku.solve(new CdclSolver());
+        assertTrue("Failed to solve test sudoku", sudoku.isValid());
+        assertEquals("Did not match expected output", expectedSudoku.toString(), sudoku.toString());
+    }
+
+    @Test
+    public void testSolveHard() throws Exception {
+        for (String puzzle : new String[]{BacktrackingSolverTest.hardSudokuString, antiBacktrackingLine}) {
+            Sudoku sudoku = new Sudoku(puzzle);
+            SolveResult result = sudoku.solve(new CdclSolver(), SolveBudget.UNLIMITED);
+            assertEquals(SolveStatus.SOLVED, result.getStatus());
+            assertTrue("Failed to solve hard sudoku", sudoku.isValid());
+        }
+    }
+
+    @Test
+    public void testUnsolvable() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        int[][] grid = sudoku.getGrid();
+        // put a second 5 in the first row
+        grid[1][0] = 5;
+        String original = sudoku.toString();
+        SolveResult result = sudoku.solve(new CdclSolver(), SolveBudget.UNLIMITED);
+        assertEquals(SolveStatus.UNSOLVABLE, result.getStatus());
+        assertEquals(original, sudoku.toString());
+    }
+
+    @Test
+    public void testNodeBudgetExhausted() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        SolveResult result = sudoku.solve(new CdclSolver(), SolveBudget.nodes(0));
+        assertEquals(SolveStatus.BUDGET_EXHAUSTED, result.getStatus());
+        assertEquals(0, result.getNodes());
+    }
+
+    @Test
+    public void testSolveLargerGrids() throws Exception {
+        Random random = new Random(34);
+        for (int boxSize = 4; boxSize <= 5; boxSize++) {
+            int size = boxSize * boxSize;
+            int[] solution = patternSolution(boxSize);
+            int[] cells = Arrays.copyOf(solution, solution.length);
+            for (int i = 0; i < cells.length; i++) {
+                if (random.nextInt(100) < 55) {
+                    cells[i] = 0;
+                }
+            }
+            CdclSolver solver = new CdclSolver();
+            assertEquals(SolveStatus.SOLVED, solver.solveCells(cells, boxSize, SolveBudget.UNLIMITED));
+            assertTrue("Invalid " + size + "x" + size + " solution", isValid(cells, boxSize));
+            for (int i = 0; i < cells.length; i++) {
+                assertTrue(cells[i] > 0);
+            }
+        }
+    }
+
+    private static int[] patternSolution(int boxSize) {
+        int size = boxSize * boxSize;
+        int[] cells = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                cells[y * size + x] = (boxSize * (y % boxSize) + y / boxSize + x) % size + 1;
+            }
+        }
+        return cells;
+    }
+
+    private static boolean isValid(int[] cells, int boxSize) {
+        int size = boxSize * boxSize;
+        for (int unit = 0; unit < size; unit++) {
+            boolean[] row = new boolean[size + 1];
+            boolean[] column = new boolean[size + 1];
+            boolean[] box = new boolean[size + 1];
+            for (int i = 0; i < size; i++) {
+                int boxCell = ((unit / boxSize) * boxSize + i / boxSize) * size + (unit % boxSize) * boxSize + i % boxSize;
+                if (!mark(row, cells[unit * size + i]) || !mark(column, cells[i * size + unit])
+                        || !mark(box, cells[boxCell])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean mark(boolean[] seen, int value) {
+        if (value == 0 || seen[value]) {
+            return false;
+        }
+        seen[value] = true;
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.Candidates;
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for finding single logical steps
+ */
+public class HintFinderTest {
+
+    @Test
+    public void testNextIsCorrectPlacement() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        Hint hint = new HintFinder().next(sudoku);
+        assertNotNull(hint);
+        assertTrue(hint.isPlacement());
+        assertEquals(Technique.NAKED_SINGLE, hint.getTechnique());
+        assertEquals(SudokuTest.testArrayCompleted[hint.getY()][hint.getX()], hint.getValue());
+    }
+
+    @Test
+    public void testHintsSolveEasySudoku() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        Candidates candidates = Candidates.of(sudoku);
+        HintFinder finder = new HintFinder();
+        Hint hint;
+        while ((hint = finder.next(sudoku, candidates)) != null) {
+            hint.apply(sudoku, candidates);
+        }
+        assertEquals(new Sudoku(SudokuTest.testArrayCompleted).toString(), sudoku.toString());
+    }
+
+    @Test
+    public void testHiddenSingle() throws Exception {
+        Sudoku sudoku = new Sudoku();
+        Candidates candidates = new Candidates();
+        // 5 can only go in the first cell of the top row
+        for (int x = 1; x < Sudoku.GRID_SIZE; x++) {
+            candidates.remove(x, 0, 5);
+        }
+        Hint hint = new HintFinder().next(sudoku, candidates);
+        assertEquals(Technique.HIDDEN_SINGLE, hint.getTechnique());
+        assertEquals(0, hint.getX());
+        assertEquals(0, hint.getY());
+        assertEquals(5, hint.getValue());
+    }
+
+    @Test
+    public void testPointing() throws Exception {
+        Sudoku sudoku = new Sudoku();
+        Candidates candidates = new Candidates();
+        // within the top left box 1 can only go in the top row
+        for (int x = 0; x < Sudoku.BOX_SIZE; x++) {
+            for (int y = 1; y < Sudoku.BOX_SIZE; y++) {
+                candidates.remove(x, y, 1);
+            }
+        }
+        Hint hint = new HintFinder().next(sudoku, candidates);
+        assertEquals(Technique.POINTING, hint.getTechnique());
+        assertFalse(hint.isPlacement());
+        assertEquals(Masks.bit(1), hint.getEliminated());
+        int[] cells = hint.getCells();
+        assertEquals(Sudoku.GRID_SIZE - Sudoku.BOX_SIZE, cells.length);
+        for (int cell : cells) {
+            assertEquals(0, Masks.y(cell));
+            assertTrue(Masks.x(cell) >= Sudoku.BOX_SIZE);
+        }
+        hint.apply(sudoku, candidates);
+        assertFalse(candidates.contains(Sudoku.GRID_SIZE - 1, 0, 1));
+        assertTrue(candidates.contains(0, 0, 1));
+    }
+
+    @Test
+    public void testNoHint() throws Exception {
+        assertNull(new HintFinder().next(new Sudoku()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the fork/join search
+ */
+public class ParallelSolverTest {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSolve() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        Sudoku expectedSudoku = new Sudoku(SudokuTest.testArrayCompleted);
+        sudoku.solve(new ParallelSolver(pool, ParallelSolver.DEFAULT_SPLIT_DEPTH));
+        assertEquals("Did not match expected output", expectedSudoku.toString(), sudoku.toString());
+    }
+
+    @Test
+    public void testSolveHard() throws Exception {
+        String[] puzzles = {BacktrackingSolverTest.hardSudokuString, CdclSolverTest.antiBacktrackingLine};
+        for (String puzzle : puzzles) {
+            Sudoku sudoku = new Sudoku(puzzle);
+            SolveResult result = sudoku.solve(new ParallelSolver(pool, 3), SolveBudget.UNLIMITED);
+            assertEquals(SolveStatus.SOLVED, result.getStatus());
+            assertTrue("Failed to solve hard sudoku", sudoku.isValid());
+        }
+    }
+
+    @Test
+    public void testNodeBudgetExhausted() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        String original = sudoku.toString();
+        SolveResult result = sudoku.solve(new ParallelSolver(pool, 2), SolveBudget.nodes(1));
+        assertEquals(SolveStatus.BUDGET_EXHAUSTED, result.getStatus());
+        assertEquals(original, sudoku.toString());
+    }
+
+    @Test
+    public void testUnsolvableOnLastNode() throws Exception {
+        // only the search shows there is no solution, so a budget of exactly the nodes it needs still finishes
+        String line = "690450000040000000070803040001024009000000000850730020010080702000200198900017530";
+        ParallelSolver solver = new ParallelSolver(pool, 0);
+        SolveResult full = new Sudoku(line).solve(solver, SolveBudget.UNLIMITED);
+        assertEquals(SolveStatus.UNSOLVABLE, full.getStatus());
+        assertTrue(full.getNodes() > 0);
+        SolveResult exact = new Sudoku(line).solve(solver, SolveBudget.nodes(full.getNodes()));
+        assertEquals(SolveStatus.UNSOLVABLE, exact.getStatus());
+    }
+
+    @Test
+    public void testCountSolutions() throws Exception {
+        Sudoku hard = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        assertEquals(1, new ParallelSolver(pool, 4).countSolutions(hard, 10));
+        // an empty grid has far more solutions than the limit
+        assertEquals(500, new ParallelSolver(pool, 4).countSolutions(new Sudoku(), 500));
+
+        // removing givens from the hard puzzle leaves many solutions, splitting must not change how many are found
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        sudoku.getGrid()[0][0] = 0;
+        sudoku.getGrid()[2][1] = 0;
+        long alone = new ParallelSolver(pool, 0).countSolutions(sudoku, Long.MAX_VALUE);
+        long split = new ParallelSolver(pool, 5).countSolutions(sudoku, Long.MAX_VALUE);
+        assertTrue(alone > 1);
+        assertEquals(alone, split);
+    }
+}
@@ -0,0 +1,105 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.Regions;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.Sudoku;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for counting solutions with checkpoints
+ */
+public class SolutionCounterTest {
+
+    private static int[] cells(Sudoku sudoku) {
+        return sudoku.toCells(new int[Masks.CELL_COUNT]);
+    }
+
+    /**
+     * The hard test puzzle with its first two rows cleared, which has many solutions
+     */
+    private static Sudoku manySolutions() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+            sudoku.setAbsolute(x, 0, 0);
+            sudoku.setAbsolute(x, 1, 0);
+        }
+        return sudoku;
+    }
+
+    private static byte[] checkpoint(SolutionCounter counter) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        counter.checkpoint(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testCountMatchesParallelSolver() throws Exception {
+        Sudoku sudoku = manySolutions();
+        SolutionCounter counter = new SolutionCounter();
+        counter.start(cells(sudoku), Long.MAX_VALUE);
+        assertTrue(counter.run(SolveBudget.UNLIMITED));
+        assertTrue(counter.getSolutions() > 1);
+        assertEquals(new ParallelSolver().countSolutions(sudoku, Long.MAX_VALUE), counter.getSolutions());
+    }
+
+    @Test
+    public void testResumeGivesIdenticalResults() throws Exception {
+        int[] cells = cells(manySolutions());
+        SolutionCounter uninterrupted = new SolutionCounter();
+        uninterrupted.start(cells, Long.MAX_VALUE);
+        assertTrue(uninterrupted.run(SolveBudget.UNLIMITED));
+
+        SolutionCounter counter = new SolutionCounter();
+        counter.start(cells, Long.MAX_VALUE);
+        int checkpoints = 0;
+        while (!counter.run(SolveBudget.nodes(37))) {
+            byte[] saved = checkpoint(counter);
+            // carry on in a fresh counter each time, as a restarted process would
+            counter = new SolutionCounter();
+            counter.resume(new DataInputStream(new ByteArrayInputStream(saved)));
+            checkpoints++;
+        }
+        assertTrue(checkpoints > 1);
+        assertTrue(counter.isFinished());
+        assertEquals(uninterrupted.getSolutions(), counter.getSolutions());
+        assertEquals(uninterrupted.getNodes(), counter.getNodes());
+    }
+
+    @Test
+    public void testLimitAndUnsolvable() throws Exception {
+        SolutionCounter counter = new SolutionCounter();
+        counter.start(cells(manySolutions()), 3);
+        assertTrue(counter.run(SolveBudget.UNLIMITED));
+        assertEquals(3, counter.getSolutions());
+
+        int[] broken = new int[Masks.CELL_COUNT];
+        broken[0] = 5;
+        broken[1] = 5;
+        counter.start(broken, Long.MAX_VALUE);
+        assertTrue(counter.isFinished());
+        assertEquals(0, counter.getSolutions());
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongRegionsRejected() throws Exception {
+        SolutionCounter counter = new SolutionCounter();
+        counter.start(cells(manySolutions()), Long.MAX_VALUE);
+        counter.run(SolveBudget.nodes(10));
+        byte[] saved = checkpoint(counter);
+        new SolutionCounter(Regions.diagonal()).resume(new DataInputStream(new ByteArrayInputStream(saved)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptCheckpointRejected() throws Exception {
+        new SolutionCounter().resume(new DataInputStream(new ByteArrayInputStream(new byte[64])));
+    }
+}
@@ -0,0 +1,83 @@
+package com.lyndonarmitage.sudoku.solvers;
+
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for enumerating solutions with a stream
+ */
+public class SolutionSpliteratorTest {
+
+    private static Sudoku multipleSolutions() throws Exception {
+        Sudoku sudoku = new Sudoku(BacktrackingSolverTest.hardSudokuString);
+        sudoku.getGrid()[0][0] = 0;
+        sudoku.getGrid()[2][1] = 0;
+        return sudoku;
+    }
+
+    @Test
+    public void testUniqueSolution() throws Exception {
+        List<Sudoku> solutions = SolutionSpliterator.solutions(new Sudoku(SudokuTest.testArray))
+                .collect(Collectors.toList());
+        assertEquals(1, solutions.size());
+        assertEquals(new Sudoku(SudokuTest.testArrayCompleted).toString(), solutions.get(0).toString());
+    }
+
+    @Test
+    public void testNoSolution() throws Exception {
+        Sudoku sudoku = new Sudoku(SudokuTest.testArray);
+        sudoku.getGrid()[1][0] = 5;
+        assertEquals(0, SolutionSpliterator.solutions(sudoku).count());
+    }
+
+    @Test
+    public void testAllSolutions() throws Exception {
+        Sudoku sudoku = multipleSolutions();
+        String original = sudoku.toString();
+        List<Sudoku> solutions = SolutionSpliterator.solutions(sudoku).collect(Collectors.toList());
+        assertEquals(original, sudoku.toString());
+        for (Sudoku solution : solutions) {
+            assertTrue(solution.isValid());
+        }
+        long expected = new ParallelSolver(ForkJoinPool.commonPool(), 0).countSolutions(sudoku, Long.MAX_VALUE);
+        assertEquals(expected, solutions.size());
+        assertEquals(expected, solutions.stream().map(Sudoku::toString).distinct().count());
+    }
+
+    @Test
+    public void testLazy() throws Exception {
+        // an empty grid has billions of solutions so this only finishes if they are made on demand
+        List<Sudoku> solutions = SolutionSpliterator.solutions(new Sudoku()).limit(5).collect(Collectors.toList());
+        assertEquals(5, solutions.size());
+        assertEquals(5, solutions.stream().map(Sudoku::toString).distinct().count());
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        Sudoku sudoku = multipleSolutions();
+        long sequential = SolutionSpliterator.solutions(sudoku).count();
+        Set<String> parallel = SolutionSpliterator.solutions(sudoku).parallel()
+                .map(Sudoku::toString)
+                .collect(Collectors.toSet());
+        assertEquals(sequential, parallel.size());
+    }
+
+    @Test
+    public void testSplitSharesWork() throws Exception {
+        SolutionSpliterator first = new SolutionSpliterator(multipleSolutions());
+        SolutionSpliterator second = (SolutionSpliterator) first.trySplit();
+        assertNotNull(second);
+        long[] counts = new long[2];
+        first.forEachRemaining(solution -> counts[0]++);
+        second.forEachRemaining(solution -> counts[1]++);
+        assertEquals(SolutionSpliterator.solutions(multipleSolutions()).count(), counts[0] + counts[1]);
+    }
+}
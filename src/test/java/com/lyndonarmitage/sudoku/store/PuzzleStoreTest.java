@@ -0,0 +1,105 @@
+package com.lyndonarmitage.sudoku.store;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the memory mapped puzzle store
+ */
+public class PuzzleStoreTest {
+
+    private Path input;
+    private Path output;
+    private String puzzle;
+    private String solution;
+
+    @Before
+    public void setUp() throws Exception {
+        puzzle = new Sudoku(SudokuTest.testArray).toLine();
+        solution = new Sudoku(SudokuTest.testArrayCompleted).toLine();
+        input = Files.createTempFile("puzzles", ".txt");
+        output = Files.createTempFile("solutions", ".txt");
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            builder.append(i == 3 ? puzzle.replace("003", "333") : puzzle).append('\n');
+        }
+        Files.write(input, builder.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        try (PuzzleStore store = PuzzleStore.open(input)) {
+            assertEquals(10, store.size());
+            int[] cells = new int[Masks.CELL_COUNT];
+            store.read(9, cells);
+            Sudoku expected = new Sudoku(puzzle);
+            for (int i = 0; i < Masks.CELL_COUNT; i++) {
+                assertEquals(expected.getAbsolute(Masks.x(i), Masks.y(i)), cells[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testSolveSlice() throws Exception {
+        long[] counts;
+        try (PuzzleStore in = PuzzleStore.open(input); PuzzleStore out = PuzzleStore.create(output, in.size())) {
+            counts = new StoreSolver(2, SolveBudget.UNLIMITED).solve(in, out, 2, 8);
+        }
+        assertEquals(5, counts[SolveStatus.SOLVED.ordinal()]);
+        assertEquals(1, counts[SolveStatus.UNSOLVABLE.ordinal()]);
+        List<String> lines = Files.readAllLines(output, StandardCharsets.US_ASCII);
+        assertEquals(10, lines.size());
+        assertEquals(new Sudoku().toLine(), lines.get(0));
+        assertEquals(solution, lines.get(2));
+        assertEquals(puzzle.replace("003", "333"), lines.get(3));
+        assertEquals(solution, lines.get(7));
+        assertEquals(new Sudoku().toLine(), lines.get(8));
+    }
+
+    @Test
+    public void testSolveSlicesInSeparateRuns() throws Exception {
+        Files.delete(output);
+        StoreSolver.main(new String[]{input.toString(), output.toString(), "0", "2", "1"});
+        StoreSolver.main(new String[]{input.toString(), output.toString(), "5", "7", "1"});
+        List<String> lines = Files.readAllLines(output, StandardCharsets.US_ASCII);
+        assertEquals(10, lines.size());
+        assertEquals(solution, lines.get(0));
+        assertEquals(solution, lines.get(1));
+        assertEquals(new Sudoku().toLine(), lines.get(2));
+        assertEquals(solution, lines.get(5));
+        assertEquals(solution, lines.get(6));
+        assertEquals(new Sudoku().toLine(), lines.get(7));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenForWritingWrongCount() throws Exception {
+        PuzzleStore.create(output, 10).close();
+        PuzzleStore.openForWriting(output, 11);
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongLength() throws Exception {
+        Files.write(input, "123\n".getBytes(StandardCharsets.US_ASCII));
+        PuzzleStore.open(input);
+    }
+}
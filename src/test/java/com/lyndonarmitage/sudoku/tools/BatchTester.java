@@ -3,6 +3,10 @@ package com.lyndonarmitage.sudoku.tools;
 import com.lyndonarmitage.sudoku.Sudoku;
 import com.lyndonarmitage.sudoku.SudokuException;
 import com.lyndonarmitage.sudoku.SudokuSolver;
+import com.lyndonarmitage.sudoku.format.CorpusLoader;
+import com.lyndonarmitage.sudoku.metrics.LatencyHistogram;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import com.lyndonarmitage.sudoku.solvers.CdclSolver;
 import com.lyndonarmitage.sudoku.solvers.LogicSolver;
 import com.lyndonarmitage.sudoku.solvers.SimpleLogicSolver;
 import org.slf4j.Logger;
@@ -10,39 +14,104 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
- * A quick tool test a whole bunch of sudoku files to
+ * A quick tool to test a whole bunch of sudoku files with one of the solvers.<br />
+ * The files are read up front in parallel by a {@link CorpusLoader}, from a folder tree or a zip archive, so that the
+ * solve times aren't mixed up with file reading.<br />
+ * Every solve is timed and the latency percentiles are printed at the end, along with the slowest puzzles. A report
+ * with one row per puzzle can also be written as CSV or JSON to compare solvers or runs.<br />
+ * Big corpora can be split between several processes or machines with "--shard i/n", each writing a partial result
+ * file with "--partial", and the partial results combined afterwards with "--merge".
  */
 public class BatchTester {
     private static final Logger logger = LoggerFactory.getLogger(BatchTester.class);
+    private static final int SLOWEST_SHOWN = 5;
+    // separates the summary of a partial result file from its rows
+    private static final String PARTIAL_ROWS = "[rows]";
 
     /**
      * Main entry point for tool
      *
      * @param args <ul>
-     *             <li>arg[0] is the folder the sudokus are in</li>
+     *             <li>arg[0] is the folder the sudokus are in (searched recursively), or a zip file of them</li>
      *             <li>arg[1] is the optional file pattern to use to only process certain files (e.g."\d+\.sudoku.txt")</li>
-     *             <li>arg[2] is the optional option of which solver to use, currently only supports "simple" and "logic"</li>
+     *             <li>arg[2] is the optional option of which solver to use, currently supports "simple", "logic",
+     *             "backtracking" and "cdcl"</li>
+     *             <li>arg[3] is the optional file to write a report with a row per puzzle to, as JSON if it ends in
+     *             ".json" otherwise as CSV</li>
+     *             <li>"--shard i/n" anywhere in the arguments only processes shard i (counting from 0) of n, puzzle
+     *             files are assigned to shards by a hash of their name so every machine agrees</li>
+     *             <li>"--partial file" writes the counts, histogram and rows of this run to a partial result file</li>
+     *             <li>"--merge" instead combines the partial result files given as the arguments into one summary,
+     *             with "--report file" to write the combined report</li>
      *             </ul>
      */
-    public static void main(String[] args) {
-        if (args.length < 1) {
+    public static void main(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        int shard = 0;
+        int shards = 1;
+        String partial = null;
+        String report = null;
+        boolean merge = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--shard":
+                    String[] parts = args[++i].split("/");
+                    shard = Integer.parseInt(parts[0]);
+                    shards = Integer.parseInt(parts[1]);
+                    if (shard < 0 || shard >= shards) {
+                        System.err.println("Shard should be i/n with 0 <= i < n, was " + args[i]);
+                        System.exit(-1);
+                    }
+                    break;
+                case "--partial":
+                    partial = args[++i];
+                    break;
+                case "--report":
+                    report = args[++i];
+                    break;
+                case "--merge":
+                    merge = true;
+                    break;
+                default:
+                    positional.add(args[i]);
+            }
+        }
+        if (merge) {
+            merge(positional, report);
+            return;
+        }
+        if (positional.size() < 1) {
             System.err.println("First argument should be folder of sudokus");
             System.exit(-1);
         }
         String filePattern = null;
-        File folder = new File(args[0]);
-        logger.info("Using folder: {}", folder.getPath());
-        if (args.length >= 2) {
-            filePattern = args[1];
+        Path folder = Paths.get(positional.get(0));
+        logger.info("Using folder: {}", folder);
+        if (positional.size() >= 2) {
+            filePattern = positional.get(1);
             logger.info("Using file pattern: {}", filePattern);
         } else {
             logger.warn("No file pattern set, using all files in directory.");
         }
         SudokuSolver solver = null;
-        if (args.length >= 3) {
-            switch (args[2].toLowerCase()) {
+        if (positional.size() >= 3) {
+            switch (positional.get(2).toLowerCase()) {
                 case "simple":
                     logger.info("Using simple logic solver");
                     solver = new SimpleLogicSolver();
@@ -51,6 +120,14 @@ public class BatchTester {
                     logger.info("Using logic solver");
                     solver = new LogicSolver();
                     break;
+                case "backtracking":
+                    logger.info("Using backtracking solver");
+                    solver = new BacktrackingSolver();
+                    break;
+                case "cdcl":
+                    logger.info("Using clause learning solver");
+                    solver = new CdclSolver();
+                    break;
                 default:
                     logger.warn("Using default simple  logic solver");
                     solver = new SimpleLogicSolver();
@@ -59,52 +136,277 @@ public class BatchTester {
             logger.warn("Using default simple  logic solver");
             solver = new SimpleLogicSolver();
         }
+        if (report == null && positional.size() >= 4) {
+            report = positional.get(3);
+        }
 
-        File[] sudokuFiles = null;
-        if (filePattern != null) {
-            final String finalFilePattern = filePattern;
-            sudokuFiles = folder.listFiles((folder1, name) -> {
-                File file = new File(folder1, name);
-                return !file.isDirectory() && name.matches(finalFilePattern);
-            });
-        } else {
-            sudokuFiles = folder.listFiles();
-        }
-        if (sudokuFiles != null) {
-            int completed = 0;
-            int successes = 0;
-            int errors = 0;
-
-            for (File file : sudokuFiles) {
-                Sudoku sudoku = null;
-                try {
-                    sudoku = new Sudoku(file);
-                } catch (IOException | SudokuException e) {
-                    logger.error("Error reading sudoku file " + file.getName(), e);
-                }
-                if (sudoku != null) {
-                    try {
-                        sudoku.solve(solver);
-                        if (sudoku.getHints() >= 81) {
-                            successes++;
-                        } else {
-                            System.out.println("Failed to completely solve " + file.getName());
-                        }
-                        completed++;
-                    } catch (SudokuException e) {
-                        logger.error("Error solving sudoku file " + file.getName(), e);
-                        errors++;
-                    }
+        if (!Files.exists(folder)) {
+            System.err.println(folder + " is not a folder");
+            return;
+        }
+        List<LoadedPuzzle> puzzles = Collections.synchronizedList(new ArrayList<>());
+        CorpusLoader loader = new CorpusLoader(Runtime.getRuntime().availableProcessors());
+        final int finalShard = shard;
+        final int finalShards = shards;
+        long loadStart = System.nanoTime();
+        loader.load(folder, filePattern, shards == 1 ? null : name -> shardOf(name, finalShards) == finalShard,
+                (name, cells) -> puzzles.add(new LoadedPuzzle(name, cells.clone())));
+        logger.info("Loaded {} sudokus in {}ms", puzzles.size(), (System.nanoTime() - loadStart) / 1000000);
+        if (shards > 1) {
+            logger.info("Running shard {}/{}", shard, shards);
+        }
+        // loading is parallel so sort to solve in the same order every run
+        puzzles.sort(Comparator.comparing((LoadedPuzzle puzzle) -> puzzle.name));
+
+        BatchResult batch = new BatchResult(solver.getClass().getSimpleName());
+        batch.puzzles = puzzles.size() + loader.getMalformed();
+        batch.errors = loader.getMalformed();
+        for (LoadedPuzzle puzzle : puzzles) {
+            try {
+                Sudoku sudoku = puzzle.toSudoku();
+                int hints = sudoku.getHints();
+                long start = System.nanoTime();
+                sudoku.solve(solver);
+                long elapsed = System.nanoTime() - start;
+                batch.latency.record(elapsed);
+                boolean solved = sudoku.getHints() >= 81;
+                batch.results.add(new PuzzleResult(puzzle.name, batch.solver, elapsed, solved, hints));
+                if (solved) {
+                    batch.successes++;
                 } else {
-                    errors++;
+                    System.out.println("Failed to completely solve " + puzzle.name);
                 }
+                batch.completed++;
+            } catch (SudokuException e) {
+                logger.error("Error solving sudoku file " + puzzle.name, e);
+                batch.errors++;
             }
-            System.out.println("Completed " + completed + "/" + sudokuFiles.length + " sudokus");
-            System.out.println(successes + "/" + completed + " sudokus were completely solved");
-            System.out.println(errors + " errors occurred");
-        } else {
-            System.err.println(folder.getPath() + " is not a folder");
         }
+        print(batch);
+        if (report != null) {
+            writeReport(new File(report), batch.results);
+            logger.info("Wrote report of {} puzzles to {}", batch.results.size(), report);
+        }
+        if (partial != null) {
+            writePartial(new File(partial), batch, shard, shards);
+            logger.info("Wrote partial result of shard {}/{} to {}", shard, shards, partial);
+        }
+    }
+
+    /**
+     * @return the shard a puzzle file belongs to, the same on every machine and operating system
+     */
+    static int shardOf(String name, int shards) {
+        int hash = name.replace('\\', '/').hashCode();
+        // spread the bits as file names often only differ in their last few characters
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return Math.floorMod(hash, shards);
+    }
+
+    private static void print(BatchResult batch) {
+        System.out.println("Completed " + batch.completed + "/" + batch.puzzles + " sudokus");
+        System.out.println(batch.successes + "/" + batch.completed + " sudokus were completely solved");
+        System.out.println(batch.errors + " errors occurred");
+        System.out.println("Solve times: " + batch.latency);
+        List<PuzzleResult> slowest = new ArrayList<>(batch.results);
+        slowest.sort(Comparator.comparingLong((PuzzleResult result) -> result.nanos).reversed());
+        for (PuzzleResult result : slowest.subList(0, Math.min(SLOWEST_SHOWN, slowest.size()))) {
+            System.out.println("Slow: " + result.file + " took " + (result.nanos / 1000) + "us");
+        }
+    }
+
+    /**
+     * Writes the shard, counts and sparse histogram as "key=value" lines, then a row per puzzle of
+     * "nanos,solved,hints,solver,file" with the file last so it needs no escaping
+     */
+    private static void writePartial(File file, BatchResult batch, int shard, int shards) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("shard=" + shard + "/" + shards + "\n");
+            out.write("solver=" + batch.solver + "\n");
+            out.write("puzzles=" + batch.puzzles + "\n");
+            out.write("completed=" + batch.completed + "\n");
+            out.write("successes=" + batch.successes + "\n");
+            out.write("errors=" + batch.errors + "\n");
+            out.write("total=" + batch.latency.getTotal() + "\n");
+            out.write("max=" + batch.latency.getMax() + "\n");
+            StringBuilder buckets = new StringBuilder();
+            long[] counts = batch.latency.getBucketCounts();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    buckets.append(buckets.length() == 0 ? "" : ",").append(i).append(':').append(counts[i]);
+                }
+            }
+            out.write("buckets=" + buckets + "\n");
+            out.write(PARTIAL_ROWS + "\n");
+            for (PuzzleResult result : batch.results) {
+                out.write(result.nanos + "," + result.solved + "," + result.hints + "," + result.solver + ","
+                        + result.file + "\n");
+            }
+        }
+    }
+
+    private static void merge(List<String> partials, String report) throws IOException {
+        if (partials.isEmpty()) {
+            System.err.println("Arguments should be the partial result files to merge");
+            System.exit(-1);
+        }
+        BatchResult merged = null;
+        int shards = -1;
+        Set<Integer> seen = new TreeSet<>();
+        for (String partial : partials) {
+            List<String> lines = Files.readAllLines(Paths.get(partial), StandardCharsets.UTF_8);
+            Map<String, String> values = new HashMap<>();
+            int row = 0;
+            while (row < lines.size() && !lines.get(row).equals(PARTIAL_ROWS)) {
+                String line = lines.get(row++);
+                int equals = line.indexOf('=');
+                if (equals > 0) {
+                    values.put(line.substring(0, equals), line.substring(equals + 1));
+                }
+            }
+            String[] shard = required(values, "shard", partial).split("/");
+            int index = Integer.parseInt(shard[0]);
+            if (shards == -1) {
+                shards = Integer.parseInt(shard[1]);
+            } else if (shards != Integer.parseInt(shard[1])) {
+                throw new IOException(partial + " is from a run split " + shard[1] + " ways, not " + shards);
+            }
+            if (!seen.add(index)) {
+                throw new IOException(partial + " repeats shard " + index);
+            }
+            String solver = required(values, "solver", partial);
+            if (merged == null) {
+                merged = new BatchResult(solver);
+            } else if (!merged.solver.equals(solver)) {
+                throw new IOException(partial + " used " + solver + " not " + merged.solver);
+            }
+            merged.puzzles += Long.parseLong(required(values, "puzzles", partial));
+            merged.completed += Long.parseLong(required(values, "completed", partial));
+            merged.successes += Long.parseLong(required(values, "successes", partial));
+            merged.errors += Long.parseLong(required(values, "errors", partial));
+            long[] counts = merged.latency.getBucketCounts();
+            Arrays.fill(counts, 0);
+            String buckets = required(values, "buckets", partial);
+            if (!buckets.isEmpty()) {
+                for (String bucket : buckets.split(",")) {
+                    int colon = bucket.indexOf(':');
+                    counts[Integer.parseInt(bucket.substring(0, colon))] = Long.parseLong(bucket.substring(colon + 1));
+                }
+            }
+            merged.latency.add(LatencyHistogram.of(counts, Long.parseLong(required(values, "total", partial)),
+                    Long.parseLong(required(values, "max", partial))));
+            for (row++; row < lines.size(); row++) {
+                String[] fields = lines.get(row).split(",", 5);
+                merged.results.add(new PuzzleResult(fields[4], fields[3], Long.parseLong(fields[0]),
+                        Boolean.parseBoolean(fields[1]), Integer.parseInt(fields[2])));
+            }
+        }
+        if (seen.size() != shards) {
+            logger.warn("Only merged shards {} of {}", seen, shards);
+        }
+        merged.results.sort(Comparator.comparing((PuzzleResult result) -> result.file));
+        print(merged);
+        if (report != null) {
+            writeReport(new File(report), merged.results);
+            logger.info("Wrote report of {} puzzles to {}", merged.results.size(), report);
+        }
+    }
+
+    private static String required(Map<String, String> values, String key, String partial) throws IOException {
+        String value = values.get(key);
+        if (value == null) {
+            throw new IOException(partial + " is missing " + key);
+        }
+        return value;
+    }
+
+    private static void writeReport(File file, List<PuzzleResult> results) throws IOException {
+        boolean json = file.getName().toLowerCase().endsWith(".json");
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            if (json) {
+                out.write("[\n");
+                for (int i = 0; i < results.size(); i++) {
+                    PuzzleResult result = results.get(i);
+                    out.write("  {\"file\":\"" + escapeJson(result.file) + "\",\"solver\":\"" + result.solver
+                            + "\",\"nanos\":" + result.nanos + ",\"solved\":" + result.solved
+                            + ",\"hints\":" + result.hints + "}" + (i + 1 < results.size() ? "," : "") + "\n");
+                }
+                out.write("]\n");
+            } else {
+                out.write("file,solver,nanos,solved,hints\n");
+                for (PuzzleResult result : results) {
+                    out.write(escapeCsv(result.file) + "," + result.solver + "," + result.nanos + "," + result.solved
+                            + "," + result.hints + "\n");
+                }
+            }
+        }
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A puzzle read by the loader, waiting to be solved
+     */
+    private static final class LoadedPuzzle {
+        final String name;
+        final int[] cells;
+
+        LoadedPuzzle(String name, int[] cells) {
+            this.name = name;
+            this.cells = cells;
+        }
+
+        Sudoku toSudoku() throws SudokuException {
+            Sudoku sudoku = new Sudoku();
+            sudoku.parseCells(cells);
+            return sudoku;
+        }
+    }
 
+    /**
+     * The counts and results of a run, or of several merged together
+     */
+    private static final class BatchResult {
+        final String solver;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final List<PuzzleResult> results = new ArrayList<>();
+        long puzzles;
+        long completed;
+        long successes;
+        long errors;
+
+        BatchResult(String solver) {
+            this.solver = solver;
+        }
+    }
+
+    /**
+     * The outcome of solving a single puzzle
+     */
+    private static final class PuzzleResult {
+        final String file;
+        final String solver;
+        final long nanos;
+        final boolean solved;
+        final int hints;
+
+        PuzzleResult(String file, String solver, long nanos, boolean solved, int hints) {
+            this.file = file;
+            this.solver = solver;
+            this.nanos = nanos;
+            this.solved = solved;
+            this.hints = hints;
+        }
     }
 }
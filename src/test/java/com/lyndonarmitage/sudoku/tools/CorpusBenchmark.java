@@ -0,0 +1,188 @@
+package com.lyndonarmitage.sudoku.tools;
+
+import com.lyndonarmitage.sudoku.BudgetedSolver;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuException;
+import com.lyndonarmitage.sudoku.metrics.LatencyHistogram;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import com.lyndonarmitage.sudoku.solvers.CdclSolver;
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Solves the reference corpora bundled in src/test/resources/corpus with each solver and compares the throughput and
+ * tail latency against a committed baseline, exiting with a non-zero status if the throughput of any corpus and solver
+ * pair has dropped by more than the threshold.<br />
+ * The corpora are:
+ * <ul>
+ * <li>standard: 500 puzzles with 30 givens and a unique solution</li>
+ * <li>minimal: 200 puzzles with no given that can be removed, which tend to be harder</li>
+ * <li>hard: a few well known hard puzzles including one built to defeat depth first search</li>
+ * </ul>
+ * The baseline is only meaningful on the machine it was made on, so it should be updated (with "update") on the
+ * machine the comparison will be run on whenever the solvers get deliberately faster or slower.<br />
+ * The solvers' loggers are raised to WARN while measuring so the throughput isn't that of the console.
+ */
+public class CorpusBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusBenchmark.class);
+
+    private static final String[] CORPORA = {"standard", "minimal", "hard"};
+    private static final String DEFAULT_BASELINE = "src/test/resources/corpus/baseline.properties";
+    private static final long MEASURE_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Main entry point for tool
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the optional baseline file, defaults to
+     *             "src/test/resources/corpus/baseline.properties"</li>
+     *             <li>arg[1] is the optional largest allowed drop in throughput as a fraction, defaults to 0.2</li>
+     *             <li>arg[2] is the optional "update" to write the results as the new baseline instead of comparing
+     *             against it</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException, SudokuException {
+        Path baselineFile = Paths.get(args.length > 0 ? args[0] : DEFAULT_BASELINE);
+        double threshold = args.length > 1 ? Double.parseDouble(args[1]) : 0.2;
+        boolean update = args.length > 2 && "update".equalsIgnoreCase(args[2]);
+        // the test logging config writes every solve at DEBUG with its location, which would be measured as well
+        LogManager.getLogger(BacktrackingSolver.class.getPackage().getName()).setLevel(Level.WARN);
+
+        Map<String, Supplier<BudgetedSolver>> solvers = new LinkedHashMap<>();
+        solvers.put("backtracking", BacktrackingSolver::new);
+        solvers.put("cdcl", CdclSolver::new);
+
+        Map<String, String> results = new TreeMap<>();
+        for (String corpus : CORPORA) {
+            List<String> puzzles = load(corpus);
+            for (Map.Entry<String, Supplier<BudgetedSolver>> solver : solvers.entrySet()) {
+                String key = corpus + "." + solver.getKey();
+                LatencyHistogram latency = new LatencyHistogram();
+                double throughput = measure(solver.getValue().get(), puzzles, latency);
+                results.put(key + ".throughput", String.format(Locale.ROOT, "%.1f", throughput));
+                results.put(key + ".p99", String.valueOf(TimeUnit.NANOSECONDS.toMicros(latency.getPercentile(99))));
+                System.out.println(String.format(Locale.ROOT, "%-22s %10.1f puzzles/s  %s", key, throughput, latency));
+            }
+        }
+
+        if (update) {
+            try (Writer out = Files.newBufferedWriter(baselineFile, StandardCharsets.ISO_8859_1)) {
+                out.write("# Corpus benchmark baseline, throughput in puzzles per second and p99 in microseconds\n");
+                for (Map.Entry<String, String> result : results.entrySet()) {
+                    out.write(result.getKey() + "=" + result.getValue() + "\n");
+                }
+            }
+            logger.info("Wrote new baseline to {}", baselineFile);
+            return;
+        }
+
+        Properties baseline = new Properties();
+        try (Reader in = Files.newBufferedReader(baselineFile, StandardCharsets.ISO_8859_1)) {
+            baseline.load(in);
+        }
+        int regressions = 0;
+        for (Map.Entry<String, String> result : results.entrySet()) {
+            String expected = baseline.getProperty(result.getKey());
+            if (expected == null) {
+                System.out.println("No baseline for " + result.getKey());
+                continue;
+            }
+            double was = Double.parseDouble(expected);
+            double now = Double.parseDouble(result.getValue());
+            double change = was == 0 ? 0 : (now - was) / was;
+            boolean regressed = result.getKey().endsWith(".throughput") && change < -threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format(Locale.ROOT, "%-33s %12s -> %12s %+7.1f%%%s", result.getKey(), expected,
+                    result.getValue(), change * 100, regressed ? "  REGRESSION" : ""));
+        }
+        if (regressions > 0) {
+            System.err.println(regressions + " throughput regressions of more than " + (threshold * 100) + "%");
+            System.exit(1);
+        }
+        System.out.println("No throughput regressions of more than " + (threshold * 100) + "%");
+    }
+
+    private static List<String> load(String corpus) throws IOException {
+        InputStream stream = CorpusBenchmark.class.getResourceAsStream("/corpus/" + corpus + ".txt");
+        if (stream == null) {
+            throw new IOException("Missing corpus " + corpus);
+        }
+        List<String> puzzles = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(stream, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    puzzles.add(line.trim());
+                }
+            }
+        }
+        return puzzles;
+    }
+
+    /**
+     * Solves the puzzles over and over, first to warm up then for a fixed time. Every corpus puzzle has a solution so
+     * any puzzle left unsolved fails the run rather than counting towards the throughput.
+     *
+     * @return the number of puzzles solved per second while measuring
+     * @throws SudokuException
+     */
+    private static double measure(BudgetedSolver solver, List<String> puzzles, LatencyHistogram latency)
+            throws SudokuException {
+        Sudoku sudoku = new Sudoku();
+        long start = System.nanoTime();
+        do {
+            for (String puzzle : puzzles) {
+                sudoku.parseLine(puzzle);
+                checkSolved(sudoku, solver.solve(sudoku, SolveBudget.UNLIMITED));
+            }
+        } while (System.nanoTime() - start < WARMUP_NANOS);
+        long solved = 0;
+        start = System.nanoTime();
+        long elapsed;
+        do {
+            for (String puzzle : puzzles) {
+                sudoku.parseLine(puzzle);
+                SolveResult result = solver.solve(sudoku, SolveBudget.UNLIMITED);
+                checkSolved(sudoku, result);
+                latency.record(result.getElapsedNanos());
+                solved++;
+            }
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        return solved * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private static void checkSolved(Sudoku sudoku, SolveResult result) throws SudokuException {
+        if (result.getStatus() != SolveStatus.SOLVED) {
+            throw new SudokuException(sudoku, "Corpus puzzle not solved: " + result.getStatus());
+        }
+    }
+}
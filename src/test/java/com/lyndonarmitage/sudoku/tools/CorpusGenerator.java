@@ -0,0 +1,136 @@
+package com.lyndonarmitage.sudoku.tools;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuException;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import com.lyndonarmitage.sudoku.solvers.SolutionSpliterator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * A quick tool to make a reproducible corpus of puzzles with unique solutions, one per line.<br />
+ * Each puzzle starts from a solved grid shuffled with the symmetries of Sudoku (relabelling values, swapping rows within
+ * a band, swapping bands, the same for columns and transposing). Givens are then removed in a random order as long as
+ * the solution stays unique, stopping at the target number of givens. A target of 0 keeps going until no given can be
+ * removed, which gives minimal puzzles; these tend to be the hardest.<br />
+ * This is how the corpora in src/test/resources/corpus were made.
+ */
+public class CorpusGenerator {
+
+    /**
+     * Main entry point for tool
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the number of puzzles to make</li>
+     *             <li>arg[1] is the optional target number of givens, defaults to 0 for minimal puzzles</li>
+     *             <li>arg[2] is the optional random seed, defaults to 42</li>
+     *             <li>arg[3] is the optional file to write to, defaults to standard out</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException, SudokuException {
+        if (args.length < 1) {
+            System.err.println("First argument should be the number of puzzles to make");
+            System.exit(-1);
+        }
+        int count = Integer.parseInt(args[0]);
+        int target = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        Random random = new Random(seed);
+        int[] base = new int[Masks.CELL_COUNT];
+        new BacktrackingSolver().solveCells(base, SolveBudget.UNLIMITED);
+
+        Writer out = args.length > 3
+                ? Files.newBufferedWriter(Paths.get(args[3]), StandardCharsets.US_ASCII)
+                : new java.io.OutputStreamWriter(new PrintStream(System.out), StandardCharsets.US_ASCII);
+        Sudoku sudoku = new Sudoku();
+        for (int i = 0; i < count; i++) {
+            int[] puzzle = shuffle(base, random);
+            removeGivens(puzzle, target, random, sudoku);
+            sudoku.parseLine(toLine(puzzle));
+            out.write(sudoku.toLine());
+            out.write('\n');
+        }
+        out.flush();
+        if (args.length > 3) {
+            out.close();
+        }
+    }
+
+    private static int[] shuffle(int[] grid, Random random) {
+        int[] values = permutation(Sudoku.GRID_SIZE, random);
+        int[] rows = linePermutation(random);
+        int[] columns = linePermutation(random);
+        boolean transpose = random.nextBoolean();
+        int[] shuffled = new int[Masks.CELL_COUNT];
+        for (int y = 0; y < Sudoku.GRID_SIZE; y++) {
+            for (int x = 0; x < Sudoku.GRID_SIZE; x++) {
+                int value = values[grid[Masks.index(columns[x], rows[y])] - 1] + 1;
+                shuffled[transpose ? Masks.index(y, x) : Masks.index(x, y)] = value;
+            }
+        }
+        return shuffled;
+    }
+
+    /**
+     * @return a permutation of rows (or columns) that keeps each band together
+     */
+    private static int[] linePermutation(Random random) {
+        int[] bands = permutation(Sudoku.BOX_COUNT, random);
+        int[] lines = new int[Sudoku.GRID_SIZE];
+        for (int band = 0; band < Sudoku.BOX_COUNT; band++) {
+            int[] within = permutation(Sudoku.BOX_SIZE, random);
+            for (int i = 0; i < Sudoku.BOX_SIZE; i++) {
+                lines[band * Sudoku.BOX_SIZE + i] = bands[band] * Sudoku.BOX_SIZE + within[i];
+            }
+        }
+        return lines;
+    }
+
+    private static int[] permutation(int size, Random random) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+
+    private static void removeGivens(int[] puzzle, int target, Random random, Sudoku scratch)
+            throws SudokuException {
+        int givens = Masks.CELL_COUNT;
+        for (int cell : permutation(Masks.CELL_COUNT, random)) {
+            if (givens <= target) {
+                return;
+            }
+            int value = puzzle[cell];
+            puzzle[cell] = 0;
+            scratch.parseLine(toLine(puzzle));
+            if (SolutionSpliterator.solutions(scratch).limit(2).count() == 1) {
+                givens--;
+            } else {
+                puzzle[cell] = value;
+            }
+        }
+    }
+
+    private static String toLine(int[] cells) {
+        StringBuilder builder = new StringBuilder(Masks.CELL_COUNT);
+        for (int value : cells) {
+            builder.append(value == 0 ? '.' : (char) ('0' + value));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.lyndonarmitage.sudoku.tools;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.SudokuException;
+import com.lyndonarmitage.sudoku.solvers.SolutionCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts every solution of a Sudoku, writing a checkpoint at a regular interval so a long count that is stopped can
+ * be started again from where it got to rather than from the beginning.<br />
+ * If the checkpoint file already exists the count is resumed from it. Checkpoints are written to a temporary file and
+ * moved into place so a crash part way through writing one never loses the previous one.
+ */
+public class CountSolutions {
+    private static final Logger logger = LoggerFactory.getLogger(CountSolutions.class);
+
+    /**
+     * Main entry point for tool
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the sudoku file to count the solutions of</li>
+     *             <li>arg[1] is the checkpoint file to resume from and save to</li>
+     *             <li>arg[2] is the optional number of seconds between checkpoints, defaults to 60</li>
+     *             <li>arg[3] is the optional maximum number of solutions to count, defaults to all of them</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException, SudokuException {
+        if (args.length < 2) {
+            System.err.println("Arguments should be a sudoku file and a checkpoint file");
+            System.exit(-1);
+        }
+        Path checkpoint = new File(args[1]).toPath();
+        long interval = args.length > 2 ? Long.parseLong(args[2]) : 60;
+        long limit = args.length > 3 ? Long.parseLong(args[3]) : Long.MAX_VALUE;
+
+        SolutionCounter counter = new SolutionCounter();
+        if (Files.exists(checkpoint)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+                counter.resume(in);
+            }
+            logger.info("Resumed from {} with {} solutions after {} nodes", checkpoint, counter.getSolutions(),
+                    counter.getNodes());
+        } else {
+            counter.start(new Sudoku(new File(args[0])).toCells(new int[Masks.CELL_COUNT]), limit);
+        }
+
+        SolveBudget budget = SolveBudget.timeout(interval, TimeUnit.SECONDS);
+        while (!counter.run(budget)) {
+            save(counter, checkpoint);
+            logger.info("Checkpoint: {} solutions after {} nodes", counter.getSolutions(), counter.getNodes());
+        }
+        save(counter, checkpoint);
+        System.out.println(counter.getSolutions() + " solutions, " + counter.getNodes() + " nodes");
+    }
+
+    private static void save(SolutionCounter counter, Path checkpoint) throws IOException {
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            counter.checkpoint(out);
+        }
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,96 @@
+package com.lyndonarmitage.sudoku.tools;
+
+import com.lyndonarmitage.sudoku.BudgetedSolver;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.SolveResult;
+import com.lyndonarmitage.sudoku.SolveStatus;
+import com.lyndonarmitage.sudoku.Sudoku;
+import com.lyndonarmitage.sudoku.metrics.LatencyHistogram;
+import com.lyndonarmitage.sudoku.solvers.BacktrackingSolver;
+import com.lyndonarmitage.sudoku.solvers.CdclSolver;
+import com.lyndonarmitage.sudoku.solvers.ParallelSolver;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A quick tool to compare the depth first search, clause learning and parallel search engines on the same puzzles.<br />
+ * Every puzzle is solved by each engine a number of times with a time limit, then the latency percentiles, the number
+ * of puzzles that ran out of time and the slowest puzzle for each engine are printed. The default puzzles are a few
+ * well known hard ones including one built to defeat depth first search.
+ */
+public class EngineBenchmark {
+
+    private static final String[] DEFAULT_PUZZLES = {
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400",
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+            "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9"
+    };
+
+    /**
+     * Main entry point for tool
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the optional file of puzzles in line format, defaults to a few built in hard ones</li>
+     *             <li>arg[1] is the optional number of times to solve each puzzle, defaults to 20</li>
+     *             <li>arg[2] is the optional time limit per solve in milliseconds, defaults to 10000</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> puzzles = new ArrayList<>();
+        if (args.length > 0) {
+            for (String line : Files.readAllLines(Paths.get(args[0]), StandardCharsets.US_ASCII)) {
+                if (!line.trim().isEmpty()) {
+                    puzzles.add(line.trim());
+                }
+            }
+        } else {
+            for (String puzzle : DEFAULT_PUZZLES) {
+                puzzles.add(puzzle);
+            }
+        }
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long limitMs = args.length > 2 ? Long.parseLong(args[2]) : 10000;
+        SolveBudget budget = SolveBudget.timeout(limitMs, TimeUnit.MILLISECONDS);
+
+        run("dfs", new BacktrackingSolver(), puzzles, repeats, budget);
+        run("cdcl", new CdclSolver(), puzzles, repeats, budget);
+        run("parallel", new ParallelSolver(), puzzles, repeats, budget);
+    }
+
+    private static void run(String name, BudgetedSolver solver, List<String> puzzles, int repeats, SolveBudget budget)
+            throws Exception {
+        LatencyHistogram latency = new LatencyHistogram();
+        Sudoku sudoku = new Sudoku();
+        long exhausted = 0;
+        long slowest = -1;
+        String slowestPuzzle = null;
+        // one untimed pass to warm up the JIT
+        for (String puzzle : puzzles) {
+            sudoku.parseLine(puzzle);
+            solver.solve(sudoku, budget);
+        }
+        for (int r = 0; r < repeats; r++) {
+            for (String puzzle : puzzles) {
+                sudoku.parseLine(puzzle);
+                SolveResult result = solver.solve(sudoku, budget);
+                latency.record(result.getElapsedNanos());
+                if (result.getStatus() == SolveStatus.BUDGET_EXHAUSTED) {
+                    exhausted++;
+                }
+                if (result.getElapsedNanos() > slowest) {
+                    slowest = result.getElapsedNanos();
+                    slowestPuzzle = puzzle;
+                }
+            }
+        }
+        System.out.println(name + ": " + latency);
+        System.out.println(name + ": out of time " + exhausted + ", slowest " + (slowest / 1000) + "us on "
+                + slowestPuzzle);
+    }
+}
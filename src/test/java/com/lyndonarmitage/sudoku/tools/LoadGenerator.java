@@ -0,0 +1,187 @@
+package com.lyndonarmitage.sudoku.tools;
+
+import com.lyndonarmitage.sudoku.Masks;
+import com.lyndonarmitage.sudoku.SolveBudget;
+import com.lyndonarmitage.sudoku.metrics.LatencyHistogram;
+import com.lyndonarmitage.sudoku.service.SolveServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A quick tool to measure the throughput of a {@link SolveServer} on a single machine.<br />
+ * A number of client threads repeatedly POST batches of puzzles for a fixed amount of time, then the number of
+ * puzzles solved per second and the client side latency percentiles are printed. Only answers that are full solutions
+ * count as solved; puzzles the server gave up on or couldn't parse are counted as unsolved.
+ */
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final String[] DEFAULT_PUZZLES = {
+            "003020600900305001001806400008102900700000008006708200002609500800203009005010300",
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400",
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......"
+    };
+
+    /**
+     * Main entry point for tool
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the URL of the solve endpoint (e.g. "http://localhost:8080/solve") or "embedded" to
+     *             start a server in this JVM</li>
+     *             <li>arg[1] is the optional number of client threads, defaults to 16</li>
+     *             <li>arg[2] is the optional number of seconds to run for, defaults to 10</li>
+     *             <li>arg[3] is the optional number of puzzles per request, defaults to 1</li>
+     *             <li>arg[4] is the optional file of puzzles in line format to send, defaults to a few built in
+     *             ones</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("First argument should be the solve URL or \"embedded\"");
+            System.exit(-1);
+        }
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        List<String> puzzles = new ArrayList<>();
+        if (args.length > 4) {
+            for (String line : Files.readAllLines(Paths.get(args[4]), StandardCharsets.US_ASCII)) {
+                if (!line.trim().isEmpty()) {
+                    puzzles.add(line.trim());
+                }
+            }
+        } else {
+            for (String puzzle : DEFAULT_PUZZLES) {
+                puzzles.add(puzzle);
+            }
+        }
+
+        SolveServer server = null;
+        URL url;
+        if ("embedded".equalsIgnoreCase(args[0])) {
+            server = new SolveServer(new InetSocketAddress("localhost", 0), Runtime.getRuntime().availableProcessors(),
+                    64, 100000, SolveBudget.timeout(1, TimeUnit.SECONDS));
+            server.start();
+            url = new URL("http://localhost:" + server.getPort() + "/solve");
+        } else {
+            url = new URL(args[0]);
+        }
+        logger.info("Sending batches of {} puzzles to {} from {} clients for {}s", batchSize, url, clients, seconds);
+
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong solved = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong unsolved = new AtomicLong();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Thread[] threads = new Thread[clients];
+        for (int t = 0; t < clients; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                byte[] body = batch(puzzles, offset, batchSize);
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    try {
+                        Response response = post(url, body);
+                        int status = response.status;
+                        if (status == 200) {
+                            latency.record(System.nanoTime() - start);
+                            solved.addAndGet(response.solved);
+                            unsolved.addAndGet(batchSize - response.solved);
+                        } else if (status == 503) {
+                            rejected.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }, "load-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (server != null) {
+            server.stop();
+        }
+        System.out.println("Puzzles: " + solved.get() + " (" + (solved.get() / seconds) + "/s)");
+        System.out.println("Requests: " + latency);
+        System.out.println("Unsolved: " + unsolved.get() + ", rejected: " + rejected.get() + ", errors: " + errors.get());
+    }
+
+    private static byte[] batch(List<String> puzzles, int offset, int size) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            builder.append(puzzles.get((offset + i) % puzzles.size())).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the status, and on a 200 the number of answer lines that were solutions rather than partial grids or
+     * errors
+     */
+    private static Response post(URL url, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        int solved = 0;
+        if (in != null) {
+            // read the whole response so the connection can be kept alive
+            byte[] buffer = new byte[4096];
+            int lineLength = 0;
+            boolean solution = true;
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n') {
+                        if (solution && lineLength == Masks.CELL_COUNT) {
+                            solved++;
+                        }
+                        lineLength = 0;
+                        solution = true;
+                    } else {
+                        lineLength++;
+                        // a solution is nothing but filled in cells
+                        solution &= b >= '1' && b <= '9';
+                    }
+                }
+            }
+            in.close();
+        }
+        return new Response(status, status == 200 ? solved : 0);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final int solved;
+
+        private Response(int status, int solved) {
+            this.status = status;
+            this.solved = solved;
+        }
+    }
+}
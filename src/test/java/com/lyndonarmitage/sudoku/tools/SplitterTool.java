@@ -9,7 +9,9 @@ import java.util.ArrayList;
 
 /**
  * Splitter tool designed to split the Sudokus text file from Project Euler into separate sudoku text files.
- * See <a href='https://projecteuler.net/problem=96'>https://projecteuler.net/problem=96</a>
+ * See <a href='https://projecteuler.net/problem=96'>https://projecteuler.net/problem=96</a><br />
+ * For large files prefer {@link com.lyndonarmitage.sudoku.format.FormatConverter}, which streams the puzzles into a
+ * single file in the line or binary format instead of writing a file per puzzle.
  */
 public class SplitterTool {
     private static final Logger logger = LoggerFactory.getLogger(SplitterTool.class);
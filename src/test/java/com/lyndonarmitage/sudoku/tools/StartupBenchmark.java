@@ -0,0 +1,93 @@
+package com.lyndonarmitage.sudoku.tools;
+
+import com.lyndonarmitage.sudoku.cli.Solve;
+import com.lyndonarmitage.sudoku.metrics.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how long a fresh JVM takes from being started to printing the first line of a solution with
+ * {@link Solve}, which is what matters for jobs that solve one puzzle per process.<br />
+ * Runs are made both without and, if it exists, with the class data sharing archive built by
+ * <code>mvn -P appcds package</code> so the two can be compared.
+ */
+public class StartupBenchmark {
+
+    /**
+     * Main entry point for tool
+     *
+     * @param args <ul>
+     *             <li>arg[0] is the puzzle file to solve</li>
+     *             <li>arg[1] is the optional class path to run with, defaults to the packaged jar and target/lib</li>
+     *             <li>arg[2] is the optional AppCDS archive, defaults to target/sudoku.jsa</li>
+     *             <li>arg[3] is the optional number of runs of each, defaults to 20</li>
+     *             </ul>
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("First argument should be a puzzle file");
+            System.exit(-1);
+        }
+        String puzzle = args[0];
+        String classPath = args.length > 1 ? args[1]
+                : "target/SudokuSolver-1.0-SNAPSHOT.jar" + File.pathSeparator + "target/lib/*";
+        File archive = new File(args.length > 2 ? args[2] : "target/sudoku.jsa");
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        List<String> plain = new ArrayList<>();
+        plain.add(java);
+        plain.add("-cp");
+        plain.add(classPath);
+        plain.add(Solve.class.getName());
+        plain.add(puzzle);
+        System.out.println("Without archive: " + measure(plain, runs));
+
+        if (archive.isFile()) {
+            List<String> shared = new ArrayList<>(plain);
+            shared.add(1, "-XX:SharedArchiveFile=" + archive.getPath());
+            System.out.println("With archive:    " + measure(shared, runs));
+        } else {
+            System.out.println("No archive at " + archive.getPath() + ", build one with mvn -P appcds package");
+        }
+    }
+
+    private static LatencyHistogram measure(List<String> command, int runs) throws IOException, InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // one unmeasured run so the files are in the OS cache
+        run(command);
+        for (int i = 0; i < runs; i++) {
+            histogram.record(run(command));
+        }
+        return histogram;
+    }
+
+    /**
+     * @return the nanoseconds from starting the process to reading its first line of output
+     */
+    private static long run(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long firstLine;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII))) {
+            if (reader.readLine() == null) {
+                throw new IOException("No output from " + command);
+            }
+            firstLine = System.nanoTime() - start;
+            while (reader.readLine() != null) {
+                // drain the rest
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException("Solve failed with exit status " + process.exitValue());
+        }
+        return firstLine;
+    }
+}